@@ -0,0 +1,36 @@
+package game;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+
+/**
+ * Board files for the benchmarks, {@code board_<n>x<n>_1.dat} and {@code .gbd}.
+ * <p>
+ * They are read from {@code -Dgreed.bench.boards} (default {@code target/bench-boards}),
+ * and a missing one is generated there with a seed fixed per size, so every run
+ * measures the same boards. Pass {@code -Dgreed.bench.boards=boards} to measure the
+ * tournament suite instead.
+ */
+final class BenchmarkBoards {
+    private static final Path DIRECTORY = Paths.get(System.getProperty("greed.bench.boards", "target/bench-boards"));
+
+    private BenchmarkBoards() {
+    }
+
+    /** Path of the {@code size}x{@code size} board with the given extension, generated if missing. */
+    static synchronized String file(int size, String extension) throws IOException {
+        Path path = DIRECTORY.resolve("board_" + size + "x" + size + "_1" + extension);
+        if (!Files.exists(path)) {
+            Files.createDirectories(DIRECTORY);
+            InstanceGenerator.write(InstanceGenerator.generate(new SplittableRandom(size), size), path.toString());
+        }
+        return path.toString();
+    }
+
+    static BoardData load(int size) throws IOException {
+        return BoardLoader.load(file(size, ".dat"));
+    }
+}
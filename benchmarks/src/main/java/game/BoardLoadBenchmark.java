@@ -0,0 +1,33 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/** Loading a board file from disk, text {@code .dat} and binary {@code .gbd}, without {@link BoardCache}. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardLoadBenchmark {
+    @Param({"10", "25", "50", "100", "1000"})
+    int size;
+
+    @Param({".dat", ".gbd"})
+    String format;
+
+    private String file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = BenchmarkBoards.file(size, format);
+    }
+
+    @Benchmark
+    public BoardData load() throws IOException {
+        return BoardLoader.load(file);
+    }
+}
@@ -0,0 +1,75 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move generation, game-over checks and make/unmake on a mid-game board: the start
+ * position advanced by {@code size / 2} seeded random moves.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardOpsBenchmark {
+    @Param({"10", "25", "50", "100", "1000"})
+    int size;
+
+    private final int[] buffer = new int[Board.MAX_MOVES];
+    private Board board;
+    private int target;
+    private Move targetMove;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        board = BenchmarkBoards.load(size).newBoard();
+        SplittableRandom random = new SplittableRandom(size);
+        for (int i = 0; i < size / 2; i++) {
+            int count = board.getPossibleMoves(buffer);
+            if (count == 0) break;
+            long undo = board.applyMove(buffer[random.nextInt(count)]);
+            if (board.isGameOver()) {
+                board.undoMove(undo); // keep at least one move to benchmark
+                break;
+            }
+        }
+        board.getPossibleMoves(buffer);
+        target = buffer[0];
+        targetMove = new Move(board.rowOf(target), board.colOf(target));
+    }
+
+    @Benchmark
+    public int possibleMoves() {
+        return board.getPossibleMoves(buffer);
+    }
+
+    @Benchmark
+    public List<Move> possibleMoveList() {
+        return board.getPossibleMoves();
+    }
+
+    @Benchmark
+    public boolean isGameOver() {
+        return board.isGameOver();
+    }
+
+    @Benchmark
+    public long applyAndUndo() {
+        long undo = board.applyMove(target);
+        board.undoMove(undo);
+        return undo;
+    }
+
+    @Benchmark
+    public long applyMoveAndUndo() {
+        long undo = board.applyMoveWithUndo(targetMove);
+        board.undoMove(undo);
+        return undo;
+    }
+}
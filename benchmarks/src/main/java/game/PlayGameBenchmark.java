@@ -0,0 +1,55 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole {@link Referee#playGame} runs with the bundled players, quiet and without
+ * snapshots, so the time is the referee loop plus the player's own move choice.
+ * Player67890 plays randomly (unseeded), so its game lengths, and times, vary.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayGameBenchmark {
+    @Param({"10", "25", "50", "100", "1000"})
+    int size;
+
+    @Param({"12345", "67890"})
+    String studentID;
+
+    private GameScheduler scheduler;
+    private BoardData data;
+    private String file;
+    private Player player;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        scheduler = new GameScheduler(1);
+        file = BenchmarkBoards.file(size, ".dat");
+        data = BoardLoader.load(file);
+    }
+
+    @Setup(Level.Invocation)
+    public void newGame() {
+        player = Referee.initializePlayer(studentID, data.newBoard(), scheduler);
+        if (player == null) {
+            throw new IllegalStateException("Cannot initialize Player" + studentID);
+        }
+    }
+
+    @Benchmark
+    public int playGame() {
+        return Referee.playGame(player, studentID, file, false, scheduler, GameObserver.QUIET);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.close();
+    }
+}
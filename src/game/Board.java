@@ -3,25 +3,121 @@ package game;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Game board backed by flat primitive storage.
+ * <p>
+ * Cell values (0-15) are packed two per byte as 4-bit nibbles in a single
+ * {@code byte[]} indexed by {@code row * size + col}, and the deleted set is a
+ * {@code long[]} bitset over the same index. That is 0.625 bytes per cell
+ * instead of the ~5 bytes (plus one object header per row) of the old
+ * {@code int[][]}/{@code boolean[][]} pair, which keeps 1000x1000 boards small
+ * and cache friendly. With the three extra orderings of the deleted set below, a
+ * board costs 1 byte per cell, of which only the 0.5 bytes of the deleted sets are
+ * copied per game or lookahead copy.
+ * <p>
+ * Move generation does not walk the cells of a jump. The jump length per cell and
+ * direction comes from a shared {@link JumpTable}, and the deleted set is also kept in
+ * column-, diagonal- and anti-diagonal-major order, so the cells of a jump in any
+ * direction are consecutive bits of one of the four bitsets and "is the way clear"
+ * is a mask test on at most two words. The jump table costs 8 bytes per cell, more than
+ * everything else together, but exists once per board file (see {@link BoardData}).
+ */
 public class Board {
+    /** Upper bound on the number of legal moves from any position, one per direction. */
+    public static final int MAX_MOVES = 8;
+
+    /** Returned by {@link #applyMove(int)} when the move is not legal. */
+    public static final long ILLEGAL_MOVE = -1L;
+
+    static final int[] DIR_ROW = {-1, 1, 0, 0, -1, -1, 1, 1}; // N, S, W, E, NW, NE, SW, SE
+    static final int[] DIR_COL = {0, 0, -1, 1, -1, 1, -1, 1};
+
     private final int size;
-    private final int[][] grid;
-    private final boolean[][] visited;
+    private final byte[] cells;     // 4-bit cell values, two per byte (low nibble = even index)
+    private final byte[] jumps;     // shared JumpTable: jump length per cell and direction, 0 = off the board
+    private final long[] deleted;   // 1 bit per cell, set once the cell is visited/deleted (row-major)
+    private final long[] deletedByCol;  // the same set at col * size + row
+    private final long[] deletedByDiag; // NW-SE diagonals one after another, see diagIndex
+    private final long[] deletedByAnti; // NE-SW diagonals one after another, see antiIndex
     private int playerRow;
     private int playerCol;
+    private int playerDiag;         // diagIndex and antiIndex of the player cell, kept for move generation
+    private int playerAnti;
     private int score;
+    private long hash;              // Zobrist hash of the deleted set and player position
+    private DegreeIndex degrees;    // null unless enableDegreeIndex() was called
 
+    /**
+     * Board over a grid of cell values. The grid is packed into its own {@link BoardData},
+     * so more boards on the same cells should be copies ({@link #Board(Board)}), which
+     * share the packed cells and jump table instead of building them again.
+     */
     public Board(int size, int[][] grid, int startRow, int startCol) {
+        this(new BoardData(size, startRow, startCol, packCells(size, grid)));
+    }
+
+    /** A fresh board on {@code data}; its packed cells and jump table are shared, never copied. */
+    Board(BoardData data) {
+        this(data.size, data.cells, data.jumpTable(), data.startRow, data.startCol);
+    }
+
+    /**
+     * Board over already packed cell values and the {@link JumpTable} built for them. Both
+     * arrays are shared and must not be modified afterwards; Board itself never writes to them.
+     */
+    private Board(int size, byte[] packedCells, byte[] jumpTable, int startRow, int startCol) {
         this.size = size;
-        this.grid = grid;
-        this.visited = new boolean[size][size];
+        this.cells = packedCells;
+        this.jumps = jumpTable;
+        this.deleted = new long[(size * size + 63) >>> 6];
+        this.deletedByCol = new long[deleted.length];
+        this.deletedByDiag = new long[deleted.length];
+        this.deletedByAnti = new long[deleted.length];
         this.playerRow = startRow;
         this.playerCol = startCol;
+        this.playerDiag = diagIndex(startRow, startCol);
+        this.playerAnti = antiIndex(startRow, startCol);
         this.score = 1;
+        this.hash = positionKey(index(startRow, startCol));
 
         // ✅ Mark the starting position as visited from the beginning
-        visited[startRow][startCol] = true;
-        grid[startRow][startCol] = 0; // Ensure it is erased like other visited cells
+        flipCell(index(startRow, startCol));
+    }
+
+    /**
+     * Copy constructor for lookahead. The cell values and jump table never change and
+     * are shared; only the deleted set (its four orderings, size² / 2 bytes) is copied.
+     */
+    public Board(Board other) {
+        this.size = other.size;
+        this.cells = other.cells;
+        this.jumps = other.jumps;
+        this.deleted = other.deleted.clone();
+        this.deletedByCol = other.deletedByCol.clone();
+        this.deletedByDiag = other.deletedByDiag.clone();
+        this.deletedByAnti = other.deletedByAnti.clone();
+        this.playerRow = other.playerRow;
+        this.playerCol = other.playerCol;
+        this.playerDiag = other.playerDiag;
+        this.playerAnti = other.playerAnti;
+        this.score = other.score;
+        this.hash = other.hash;
+        this.degrees = other.degrees == null ? null : new DegreeIndex(other.degrees);
+    }
+
+    private static byte[] packCells(int size, int[][] grid) {
+        byte[] packed = new byte[BoardData.packedLength(size)];
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                int value = grid[r][c];
+                if (value < 0 || value > 15) {
+                    throw new IllegalArgumentException("Cell (" + r + ", " + c + ") holds " + value + ", expected 0-15");
+                }
+                int i = r * size + c;
+                packed[i >>> 1] |= (byte) (value << ((i & 1) << 2));
+            }
+        }
+        return packed;
     }
 
     public int getSize() {
@@ -32,12 +128,14 @@ public class Board {
         return score;
     }
 
+    /** Returns the value of the cell, or 0 once it has been deleted. */
     public int getValueAt(int row, int col) {
-        return grid[row][col];
+        int i = index(row, col);
+        return isDeleted(i) ? 0 : cellValue(i);
     }
 
     public boolean isGameOver() {
-        return getPossibleMoves().isEmpty();
+        return scanMoves(null) == 0;
     }
 
     public int getPlayerRow() {
@@ -48,106 +146,391 @@ public class Board {
         return playerCol;
     }
 
+    /** Player position encoded as {@code row * size + col}. */
+    public int getPlayerCell() {
+        return index(playerRow, playerCol);
+    }
+
+    /**
+     * 64-bit Zobrist hash of the position: the XOR of a fixed key for every deleted cell
+     * and one for the player cell. It is updated incrementally by every move and undo,
+     * so transposed move orders that delete the same cells and end on the same square
+     * hash the same (see {@link TranspositionTable}).
+     */
+    public long getHash() {
+        return hash;
+    }
+
     public boolean isVisited(int row, int col) {
-        return visited[row][col];
+        return isDeleted(index(row, col));
+    }
+
+    /** Number of deleted cells, including the starting cell. */
+    public int getDeletedCount() {
+        int count = 0;
+        for (long word : deleted) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Starts keeping the out- and in-degree of every cell in the jump graph (see
+     * {@link DegreeIndex}) for {@link #getOutDegree} and {@link #getInDegree}, e.g. for
+     * Warnsdorff-style move ordering. Costs O(N²) once and 2N² bytes; every move and undo
+     * afterwards costs O(cells deleted) more. Copies of this board keep the index.
+     */
+    public void enableDegreeIndex() {
+        if (degrees == null) {
+            degrees = new DegreeIndex(this);
+        }
+    }
+
+    public boolean hasDegreeIndex() {
+        return degrees != null;
+    }
+
+    /**
+     * Number of cells a player on {@code cell} could jump to right now; for the player
+     * cell that is the number of legal moves. Needs {@link #enableDegreeIndex()}.
+     */
+    public int getOutDegree(int cell) {
+        return requireDegrees().outDegree(cell);
+    }
+
+    /** Number of cells that could still jump onto {@code cell}, 0 once it is deleted. Needs {@link #enableDegreeIndex()}. */
+    public int getInDegree(int cell) {
+        return requireDegrees().inDegree(cell);
+    }
+
+    /**
+     * Approximate heap bytes a copy of this board allocates: the object, the four deleted
+     * bitsets and the degree index if enabled (the cells and jump table are shared).
+     */
+    long copyBytes() {
+        return 96 + 4 * (16 + 8L * deleted.length) + (degrees == null ? 0 : degrees.copyBytes());
+    }
+
+    /** Cells whose maintained degrees differ from a rebuild (O(N²)), for {@link EngineCheck}. */
+    int degreeIndexMismatches() {
+        return requireDegrees().mismatches(this);
+    }
+
+    private DegreeIndex requireDegrees() {
+        if (degrees == null) {
+            throw new IllegalStateException("Degree index not enabled, call enableDegreeIndex() first");
+        }
+        return degrees;
     }
 
     public List<Move> getPossibleMoves() {
-        List<Move> moves = new ArrayList<>();
-        int[][] directions = {
-            {-1, 0}, {1, 0}, {0, -1}, {0, 1},  // N, S, W, E
-            {-1, -1}, {-1, 1}, {1, -1}, {1, 1} // NW, NE, SW, SE
-        };
-    
-        for (int[] dir : directions) {
-            int firstRow = playerRow + dir[0];
-            int firstCol = playerCol + dir[1];
-    
-            // Check if the first cell in this direction is valid
-            if (!isInBounds(firstRow, firstCol) || visited[firstRow][firstCol]) {
-                continue;
-            }
-    
-            int stepSize = grid[firstRow][firstCol]; // Get step size from the first cell
-            int targetRow = playerRow + (dir[0] * stepSize);
-            int targetCol = playerCol + (dir[1] * stepSize);
-    
-            // Ensure the target cell is in bounds
-            if (!isInBounds(targetRow, targetCol) || visited[targetRow][targetCol]) {
+        int[] buffer = new int[MAX_MOVES];
+        int count = getPossibleMoves(buffer);
+        List<Move> moves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            moves.add(new Move(rowOf(buffer[i]), colOf(buffer[i])));
+        }
+        return moves;
+    }
+
+    /**
+     * Allocation-free move generation: writes the target cell of every legal move,
+     * encoded as {@code row * size + col}, into {@code buffer} and returns how many
+     * were written. The buffer must hold at least {@link #MAX_MOVES} entries.
+     * Moves come out in the same order as {@link #getPossibleMoves()}.
+     */
+    public int getPossibleMoves(int[] buffer) {
+        return scanMoves(buffer);
+    }
+
+    /** Row of a cell encoded by {@link #getPossibleMoves(int[])}. */
+    public int rowOf(int cell) {
+        return cell / size;
+    }
+
+    /** Column of a cell encoded by {@link #getPossibleMoves(int[])}. */
+    public int colOf(int cell) {
+        return cell % size;
+    }
+
+    // Single pass over the 8 directions: a table lookup and a bit test per direction.
+    // With a null buffer it stops at the first legal move and only reports 0 or 1.
+    private int scanMoves(int[] buffer) {
+        int from = index(playerRow, playerCol);
+        int base = from * MAX_MOVES;
+        int count = 0;
+
+        for (int d = 0; d < MAX_MOVES; d++) {
+            int length = jumps[base + d];
+            if (length == 0 || !isLineClear(d, length)) {
                 continue;
             }
-    
-            // Check if all intermediate cells are available
-            if (isPathClear(playerRow, playerCol, targetRow, targetCol, dir[0], dir[1])) {
-                moves.add(new Move(targetRow, targetCol));
+            if (buffer == null) {
+                return 1;
             }
+            buffer[count++] = from + length * (DIR_ROW[d] * size + DIR_COL[d]);
         }
-        return moves;
+        return count;
     }
-    
-    // Helper method to check if all intermediate cells are clear
-    private boolean isPathClear(int startRow, int startCol, int targetRow, int targetCol, int rowStep, int colStep) {
-        int row = startRow + rowStep;
-        int col = startCol + colStep;
-    
-        while (row != targetRow || col != targetCol) {
-            if (!isInBounds(row, col) || visited[row][col]) {
-                return false; // Blocked path
-            }
-            row += rowStep;
-            col += colStep;
+
+    /**
+     * Whether the {@code length} cells after the player in direction {@code d} are all
+     * undeleted. The jump table guarantees they are on the board, so they are
+     * consecutive bits of the bitset ordered along that direction.
+     */
+    private boolean isLineClear(int d, int length) {
+        return isLineClear(d, length, playerRow, playerCol, playerDiag, playerAnti);
+    }
+
+    /** {@link #isLineClear(int, int)} from any cell, for a jump the {@link JumpTable} allows. */
+    boolean isJumpClear(int row, int col, int d, int length) {
+        return isLineClear(d, length, row, col,
+                d == 4 || d == 7 ? diagIndex(row, col) : 0, d == 5 || d == 6 ? antiIndex(row, col) : 0);
+    }
+
+    private boolean isLineClear(int d, int length, int row, int col, int diag, int anti) {
+        int p;
+        switch (d) {
+            case 0:  p = col * size + row; return isRangeClear(deletedByCol, p - length, p - 1); // N
+            case 1:  p = col * size + row; return isRangeClear(deletedByCol, p + 1, p + length); // S
+            case 2:  p = row * size + col; return isRangeClear(deleted, p - length, p - 1);      // W
+            case 3:  p = row * size + col; return isRangeClear(deleted, p + 1, p + length);      // E
+            case 4:  return isRangeClear(deletedByDiag, diag - length, diag - 1);                // NW
+            case 7:  return isRangeClear(deletedByDiag, diag + 1, diag + length);                // SE
+            case 5:  return isRangeClear(deletedByAnti, anti - length, anti - 1);                // NE
+            default: return isRangeClear(deletedByAnti, anti + 1, anti + length);                // SW
         }
-        return true;
     }
-    
 
-    public boolean applyMove(Move move) {
-        if (!isValidMove(move.getRow(), move.getCol())) {
-            return false;
+    /** Jump length from {@code cell} in direction {@code d}, 0 if it leaves the board (deletions ignored). */
+    int jumpLength(int cell, int d) {
+        return jumps[cell * MAX_MOVES + d];
+    }
+
+    // Bits lo..hi (inclusive, at most 15 apart) are all clear
+    private static boolean isRangeClear(long[] bits, int lo, int hi) {
+        long low = -1L << lo;
+        long high = -1L >>> (63 - (hi & 63));
+        int w0 = lo >>> 6, w1 = hi >>> 6;
+        if (w0 == w1) {
+            return (bits[w0] & low & high) == 0;
         }
+        return (bits[w0] & low) == 0 && (bits[w1] & high) == 0;
+    }
 
-        int rowDir = Integer.signum(move.getRow() - playerRow);
-        int colDir = Integer.signum(move.getCol() - playerCol);
+    // Diagonals are numbered 0..2*size-2 and stored back to back, each from its top cell
+    private int diagIndex(int row, int col) {
+        return lineStart(col - row + size - 1) + Math.min(row, col);
+    }
+
+    private int antiIndex(int row, int col) {
+        return lineStart(row + col) + Math.min(row, size - 1 - col);
+    }
 
-        int tempRow = playerRow;
-        int tempCol = playerCol;
+    // Cells on diagonals 0..line-1, whose lengths are 1, 2, ..., size, ..., 2, 1
+    private int lineStart(int line) {
+        if (line < size) {
+            return line * (line + 1) / 2;
+        }
+        long after = 2L * size - 1 - line;
+        return (int) ((long) size * size - after * (after + 1) / 2);
+    }
+
+    public boolean applyMove(Move move) {
+        return applyMoveWithUndo(move) != ILLEGAL_MOVE;
+    }
 
-        while (tempRow != move.getRow() || tempCol != move.getCol()) {
-            tempRow += rowDir;
-            tempCol += colDir;
+    /** {@link #applyMove(int)} for a {@link Move}: returns the undo record or {@link #ILLEGAL_MOVE}. */
+    public long applyMoveWithUndo(Move move) {
+        if (!isInBounds(move.getRow(), move.getCol())) {
+            return ILLEGAL_MOVE;
+        }
+        return applyMove(index(move.getRow(), move.getCol()));
+    }
 
-            if (!isInBounds(tempRow, tempCol)) break;
+    /**
+     * Moves the player to {@code cell} (encoded as {@code row * size + col}) if that is a
+     * legal move, deleting every cell on the way. Returns an undo record for
+     * {@link #undoMove(long)}, or {@link #ILLEGAL_MOVE} if the board was left untouched.
+     * <p>
+     * The record packs the previous player cell (bits 0-31), the number of deleted cells
+     * (bits 32-35) and the direction (bits 36-38); the score is implied, since every move
+     * adds exactly one.
+     */
+    public long applyMove(int cell) {
+        if (cell < 0 || cell >= size * size) {
+            return ILLEGAL_MOVE;
+        }
+        int rowDelta = cell / size - playerRow;
+        int colDelta = cell % size - playerCol;
+        int length = Math.max(Math.abs(rowDelta), Math.abs(colDelta));
 
-            visited[tempRow][tempCol] = true;
-            grid[tempRow][tempCol] = 0; // Mark as deleted
+        // ✅ Only straight or diagonal jumps whose length matches the first cell are legal
+        if (length == 0 || (rowDelta != 0 && colDelta != 0 && Math.abs(rowDelta) != Math.abs(colDelta))) {
+            return ILLEGAL_MOVE;
+        }
+        int direction = direction(Integer.signum(rowDelta), Integer.signum(colDelta));
+        int from = index(playerRow, playerCol);
+        if (jumps[from * MAX_MOVES + direction] != length || !isLineClear(direction, length)) {
+            return ILLEGAL_MOVE;
         }
 
-        playerRow = move.getRow();
-        playerCol = move.getCol();
+        if (degrees != null) {
+            degrees.deleteLine(this, from, direction, length);
+        } else {
+            flipLine(direction, length);
+        }
+        hash ^= positionKey(from) ^ positionKey(cell);
+        playerRow = cell / size;
+        playerCol = cell % size;
+        playerDiag = diagIndex(playerRow, playerCol);
+        playerAnti = antiIndex(playerRow, playerCol);
         score += 1;
-        return true;
+        return (long) from | (long) length << 32 | (long) direction << 36;
+    }
+
+    /** Reverts the move described by {@code undo}, which must be the latest move still applied. */
+    public void undoMove(long undo) {
+        int from = undoFromCell(undo);
+        int direction = undoDirection(undo);
+        hash ^= positionKey(from) ^ positionKey(index(playerRow, playerCol));
+        playerRow = from / size;
+        playerCol = from % size;
+        playerDiag = diagIndex(playerRow, playerCol);
+        playerAnti = antiIndex(playerRow, playerCol);
+        if (degrees != null) {
+            degrees.restoreLine(this, from, direction, undoLength(undo));
+        } else {
+            flipLine(direction, undoLength(undo));
+        }
+        score -= 1;
+    }
+
+    /** Player cell before the move recorded in {@code undo}. */
+    public static int undoFromCell(long undo) {
+        return (int) undo;
+    }
+
+    /** Number of cells the move recorded in {@code undo} deleted, the target included. */
+    public static int undoLength(long undo) {
+        return (int) (undo >>> 32) & 0xF;
+    }
+
+    /** Direction index (N, S, W, E, NW, NE, SW, SE) of the move recorded in {@code undo}. */
+    public static int undoDirection(long undo) {
+        return (int) (undo >>> 36) & 0x7;
     }
 
-    private boolean isValidMove(int row, int col) {
-        return isInBounds(row, col) && !visited[row][col]; // ✅ Ensures visited cells (including the start) cannot be moved into
+    private static int direction(int rowStep, int colStep) {
+        for (int d = 0; d < MAX_MOVES; d++) {
+            if (DIR_ROW[d] == rowStep && DIR_COL[d] == colStep) {
+                return d;
+            }
+        }
+        throw new IllegalArgumentException("Not a direction: " + rowStep + ", " + colStep);
+    }
+
+    /** The packed cell values, shared and read-only (see {@link BoardData}). */
+    byte[] packedCells() {
+        return cells;
     }
 
     private boolean isInBounds(int row, int col) {
         return row >= 0 && row < size && col >= 0 && col < size;
     }
 
+    private int index(int row, int col) {
+        return row * size + col;
+    }
+
+    private int cellValue(int i) {
+        return (cells[i >>> 1] >>> ((i & 1) << 2)) & 0xF;
+    }
+
+    boolean isDeleted(int i) {
+        return (deleted[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /** Toggles cell {@code i} in all four orderings and the hash. */
+    void flipCell(int i) {
+        int row = i / size, col = i % size;
+        flipBit(deleted, i);
+        flipBit(deletedByCol, col * size + row);
+        flipBit(deletedByDiag, diagIndex(row, col));
+        flipBit(deletedByAnti, antiIndex(row, col));
+        hash ^= deletedKey(i);
+    }
+
+    /**
+     * Toggles the {@code length} cells after the player in {@code direction} in all four
+     * orderings: deletes them when applying a move, restores them when undoing it. Each
+     * index moves by a constant step along the line, except the diagonal ones across
+     * diagonals, which are recomputed.
+     */
+    private void flipLine(int direction, int length) {
+        int rowStep = DIR_ROW[direction], colStep = DIR_COL[direction];
+        int step = rowStep * size + colStep;
+        int colMajorStep = colStep * size + rowStep;
+        int diagStep = rowStep == colStep ? rowStep : 0;  // along NW-SE
+        int antiStep = rowStep == -colStep ? rowStep : 0; // along NE-SW
+        int row = playerRow, col = playerCol;
+        int i = index(row, col), c = col * size + row, diag = playerDiag, anti = playerAnti;
+        for (int k = 0; k < length; k++) {
+            row += rowStep;
+            col += colStep;
+            i += step;
+            c += colMajorStep;
+            diag = diagStep != 0 ? diag + diagStep : diagIndex(row, col);
+            anti = antiStep != 0 ? anti + antiStep : antiIndex(row, col);
+            flipBit(deleted, i);
+            flipBit(deletedByCol, c);
+            flipBit(deletedByDiag, diag);
+            flipBit(deletedByAnti, anti);
+            hash ^= deletedKey(i);
+        }
+    }
+
+    private static void flipBit(long[] bits, int i) {
+        bits[i >>> 6] ^= 1L << i;
+    }
+
+    // Zobrist keys are derived from the cell index instead of stored in a table,
+    // so they cost no memory on 1000x1000 boards and are the same for every board.
+    private static long deletedKey(int i) {
+        return mix64((i + 1) * 0x9E3779B97F4A7C15L);
+    }
+
+    private static long positionKey(int i) {
+        return mix64(i * 0x9E3779B97F4A7C15L + 0x632BE59BD9B4E019L);
+    }
+
+    // SplitMix64 finalizer
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
     public void printBoard() {
+        StringBuilder frame = new StringBuilder(size * (3 * size + 1));
+        render(frame);
+        System.out.print(frame); // ✅ One write per frame instead of one per cell
+    }
+
+    /** Appends the board as printed by {@link #printBoard()}: " * " for the player, blanks for deleted cells. */
+    public void render(StringBuilder out) {
+        int cell = 0;
         for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
+            for (int j = 0; j < size; j++, cell++) {
                 if (i == playerRow && j == playerCol) {
-                    System.out.print(" * ");
-                } else if (visited[i][j]) {
-                    System.out.print("   ");
+                    out.append(" * ");
+                } else if (isDeleted(cell)) {
+                    out.append("   ");
                 } else {
-                    System.out.printf(" %d ", grid[i][j]);
+                    out.append(' ').append(cellValue(cell)).append(' ');
                 }
             }
-            System.out.println();
+            out.append(System.lineSeparator());
         }
     }
 }
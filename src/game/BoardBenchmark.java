@@ -0,0 +1,192 @@
+package game;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Rough memory, throughput and allocation check for {@link Board} on the large board instances.
+ *
+ * Usage: java game.BoardBenchmark [boardFile...]
+ */
+public class BoardBenchmark {
+    private static final int RETAINED_BOARDS = 1000;
+    private static final int PLAYOUTS = 20_000;
+    private static final int GENERATOR_CALLS = 5_000_000;
+    private static final int SEARCH_DEPTH = 7;
+
+    public static void main(String[] args) throws IOException {
+        String[] files = args.length > 0 ? args : new String[] {
+            "boards/board_100x100_1.dat", "boards/board_100x100_2.dat", "boards/board_100x100_3.dat",
+            "boards/board_100x100_4.dat", "boards/board_100x100_5.dat"
+        };
+
+        for (String file : files) {
+            BoardData data = BoardLoader.load(file);
+            System.out.println(file);
+            System.out.printf("  retained bytes/board: %,d%n", measureRetainedBytes(data));
+
+            long start = System.nanoTime();
+            for (int i = 0; i < PLAYOUTS; i++) {
+                newBoard(data);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("  constructions/sec:    %,.0f%n", PLAYOUTS / seconds);
+
+            long[] movesAndNanos = new long[2];
+            randomPlayouts(data, PLAYOUTS / 4, 1, movesAndNanos); // warm-up
+            movesAndNanos[0] = movesAndNanos[1] = 0;
+            randomPlayouts(data, PLAYOUTS, 42, movesAndNanos);
+            System.out.printf("  playout moves/sec:    %,.0f%n", movesAndNanos[0] / (movesAndNanos[1] / 1e9));
+
+            Board board = newBoard(data);
+            start = System.nanoTime();
+            long checksum = 0;
+            for (int pass = 0; pass < 200; pass++) {
+                checksum += scan(board);
+            }
+            seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("  full-grid scans/sec:  %,.0f (checksum %d)%n", 200 / seconds, checksum);
+
+            measureMoveGeneration(board, false); // warm-up
+            measureMoveGeneration(board, true);
+            measureMoveGeneration(board, false);
+            measureMoveGeneration(board, true);
+
+            measureSearch(board); // warm-up
+            measureSearch(board);
+            measureTranspositionSearch(board, new TranspositionTable(1 << 16)); // warm-up
+            measureTranspositionSearch(board, new TranspositionTable(1 << 20));
+        }
+    }
+
+    private static Board newBoard(BoardData data) {
+        return data.newBoard();
+    }
+
+    private static long measureRetainedBytes(BoardData data) {
+        Board[] boards = new Board[RETAINED_BOARDS];
+        long before = usedHeap();
+        for (int i = 0; i < boards.length; i++) {
+            boards[i] = newBoard(data);
+        }
+        long after = usedHeap();
+        if (boards[boards.length - 1].getSize() != data.size) {
+            throw new IllegalStateException("unreachable");
+        }
+        return (after - before) / boards.length;
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    /** Plays random games, adding the move count and the time spent outside board construction to {@code totals}. */
+    private static void randomPlayouts(BoardData data, int count, long seed, long[] totals) {
+        Random random = new Random(seed);
+        for (int i = 0; i < count; i++) {
+            Board board = newBoard(data);
+            long start = System.nanoTime();
+            List<Move> possible = board.getPossibleMoves();
+            while (!possible.isEmpty()) {
+                board.applyMove(possible.get(random.nextInt(possible.size())));
+                totals[0]++;
+                possible = board.getPossibleMoves();
+            }
+            totals[1] += System.nanoTime() - start;
+        }
+    }
+
+    /** Prints bytes allocated per call and the resulting allocation rate of one move-generation API. */
+    private static void measureMoveGeneration(Board board, boolean buffered) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int[] buffer = new int[Board.MAX_MOVES];
+        long found = 0;
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < GENERATOR_CALLS; i++) {
+            found += buffered ? board.getPossibleMoves(buffer) : board.getPossibleMoves().size();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        System.out.printf("  %-24s %,.1f bytes/call, %,.1f MB/s allocated, %,.0f calls/sec (%d moves)%n",
+                buffered ? "getPossibleMoves(int[])" : "getPossibleMoves()",
+                (double) allocated / GENERATOR_CALLS, allocated / seconds / (1 << 20), GENERATOR_CALLS / seconds, found);
+    }
+
+    /** Fixed-depth DFS with make/unmake on a single board, reported as nodes per millisecond. */
+    private static void measureSearch(Board board) {
+        long start = System.nanoTime();
+        long nodes = countNodes(board, SEARCH_DEPTH, new int[SEARCH_DEPTH][Board.MAX_MOVES]);
+        double millis = (System.nanoTime() - start) / 1e6;
+        System.out.printf("  depth-%d DFS:           %,d nodes, %,.0f nodes/ms%n", SEARCH_DEPTH, nodes, nodes / millis);
+    }
+
+    private static long countNodes(Board board, int depth, int[][] buffers) {
+        if (depth == 0) {
+            return 1;
+        }
+        int[] moves = buffers[depth - 1];
+        int count = board.getPossibleMoves(moves);
+        long nodes = 1;
+        for (int i = 0; i < count; i++) {
+            long undo = board.applyMove(moves[i]);
+            nodes += countNodes(board, depth - 1, buffers);
+            board.undoMove(undo);
+        }
+        return nodes;
+    }
+
+    /** Same depth as {@link #measureSearch}, but a longest-line search that reuses transposed positions. */
+    private static void measureTranspositionSearch(Board board, TranspositionTable table) {
+        long[] nodes = new long[1];
+        long start = System.nanoTime();
+        int best = longestLine(board, SEARCH_DEPTH, new int[SEARCH_DEPTH][Board.MAX_MOVES], table, nodes);
+        double millis = (System.nanoTime() - start) / 1e6;
+        System.out.printf("  depth-%d DFS + table:   %,d nodes, %.1f ms (longest line %d)%n", SEARCH_DEPTH, nodes[0], millis, best);
+    }
+
+    private static int longestLine(Board board, int depth, int[][] buffers, TranspositionTable table, long[] nodes) {
+        nodes[0]++;
+        if (depth == 0) {
+            return 0;
+        }
+        long cached = table.probe(board.getHash());
+        if (cached != TranspositionTable.MISS && TranspositionTable.depth(cached) >= depth) {
+            return TranspositionTable.value(cached);
+        }
+        int[] moves = buffers[depth - 1];
+        int count = board.getPossibleMoves(moves);
+        int best = 0;
+        int bestMove = -1;
+        for (int i = 0; i < count; i++) {
+            long undo = board.applyMove(moves[i]);
+            int line = 1 + longestLine(board, depth - 1, buffers, table, nodes);
+            board.undoMove(undo);
+            if (line > best) {
+                best = line;
+                bestMove = moves[i];
+            }
+        }
+        table.store(board.getHash(), best, bestMove, depth, TranspositionTable.EXACT);
+        return best;
+    }
+
+    private static long scan(Board board) {
+        long sum = 0;
+        int size = board.getSize();
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                if (!board.isVisited(r, c)) {
+                    sum += board.getValueAt(r, c);
+                }
+            }
+        }
+        return sum;
+    }
+}
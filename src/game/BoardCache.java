@@ -0,0 +1,85 @@
+package game;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loaded-once board templates, keyed by file path and modification time, so a
+ * tournament over N students and M boards parses M files instead of N x M.
+ * <p>
+ * A template is an immutable {@link BoardData}; each game gets its own board from
+ * {@link BoardData#newBoard()}, which shares the packed cells (Board never writes to
+ * them) and only allocates the per-game deleted bitset. Editing or regenerating a
+ * board file changes its modification time, so the next lookup reloads it.
+ */
+final class BoardCache {
+    private static final BoardCache SHARED = new BoardCache();
+
+    private final ConcurrentHashMap<Key, BoardData> templates = new ConcurrentHashMap<>();
+
+    static BoardCache shared() {
+        return SHARED;
+    }
+
+    /** Returns the template for {@code filename}, loading it on first use or after it changed on disk. */
+    BoardData get(String filename) throws IOException {
+        Path path = Paths.get(filename).toAbsolutePath().normalize();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            throw new IOException("Board file " + filename + " is missing or empty.");
+        }
+        Key key = new Key(path, attributes.lastModifiedTime().toMillis(), attributes.size());
+
+        templates.keySet().removeIf(old -> old.path.equals(path) && !old.equals(key)); // drop stale versions
+        try {
+            return templates.computeIfAbsent(key, k -> {
+                try {
+                    return BoardLoader.load(filename);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    int size() {
+        return templates.size();
+    }
+
+    private static final class Key {
+        final Path path;
+        final long modified;
+        final long length;
+
+        Key(Path path, long modified, long length) {
+            this.path = path;
+            this.modified = modified;
+            this.length = length;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return path.equals(other.path) && modified == other.modified && length == other.length;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, modified, length);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package game;
+
+/**
+ * A parsed board instance: size, start position and the cell values packed as 4-bit
+ * nibbles in the same layout {@link Board} uses, so a board can be built from it
+ * without unpacking. Never modified after loading.
+ */
+class BoardData {
+    final int size;
+    final int startRow, startCol;
+    final byte[] cells;
+    private volatile byte[] jumps; // JumpTable, built on the first jumpTable()
+
+    BoardData(int size, int startRow, int startCol, byte[] cells) {
+        if (size < 1 || startRow < 0 || startRow >= size || startCol < 0 || startCol >= size) {
+            throw new IllegalArgumentException("Bad board: size " + size + ", start " + startRow + " " + startCol);
+        }
+        if (cells.length != packedLength(size)) {
+            throw new IllegalArgumentException("Expected " + packedLength(size) + " packed bytes, got " + cells.length);
+        }
+        this.size = size;
+        this.startRow = startRow;
+        this.startCol = startCol;
+        this.cells = cells;
+    }
+
+    /** A fresh board for one game; the packed cells and jump table are shared, never copied. */
+    Board newBoard() {
+        return new Board(this);
+    }
+
+    /** The {@link JumpTable} of these cells, built on the first call and shared by every board. */
+    byte[] jumpTable() {
+        byte[] table = jumps;
+        if (table == null) {
+            table = JumpTable.build(size, cells); // a race only builds an identical table twice
+            jumps = table;
+        }
+        return table;
+    }
+
+    int getValueAt(int row, int col) {
+        int i = row * size + col;
+        return (cells[i >>> 1] >>> ((i & 1) << 2)) & 0xF;
+    }
+
+    /** Bytes needed for {@code size * size} nibbles. */
+    static int packedLength(int size) {
+        return (int) (((long) size * size + 1) >>> 1);
+    }
+}
@@ -0,0 +1,204 @@
+package game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads and writes board files.
+ * <p>
+ * {@code .dat} is the text format (size, then "startRow startCol", then one line of
+ * space-separated values per row). It is parsed byte by byte straight out of a
+ * memory-mapped file, packing each value as it is read, with no per-line or per-cell
+ * Strings, and written the same way through a byte buffer.
+ * <p>
+ * {@code .gbd} is the binary format: the magic "GBD1", then size, startRow and
+ * startCol as big-endian ints, then the cells packed two per byte exactly as
+ * {@link Board} stores them (low nibble = even index), so loading is one bulk copy.
+ */
+final class BoardLoader {
+    static final String BINARY_EXTENSION = ".gbd";
+    private static final int MAGIC = 0x47424431; // "GBD1"
+    private static final int HEADER_BYTES = 16;
+    private static final int MAX_SIZE = JumpTable.MAX_SIZE; // largest size whose jump table fits in one array
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
+    private BoardLoader() {
+    }
+
+    /** Loads a board, choosing the format by file extension. */
+    static BoardData load(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length == 0) {
+                throw new IOException("Board file " + filename + " is missing or empty.");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            return filename.endsWith(BINARY_EXTENSION) ? readBinary(buffer, filename) : readText(buffer, filename);
+        } catch (NoSuchFileException e) {
+            throw new IOException("Board file " + filename + " is missing or empty.");
+        }
+    }
+
+    /** Writes {@code data} in the binary .gbd format. */
+    static void writeBinary(BoardData data, Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.BIG_ENDIAN);
+        header.putInt(MAGIC).putInt(data.size).putInt(data.startRow).putInt(data.startCol).flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer cells = ByteBuffer.wrap(data.cells);
+            while (header.hasRemaining() || cells.hasRemaining()) {
+                channel.write(new ByteBuffer[] {header, cells});
+            }
+        }
+    }
+
+    /**
+     * Writes {@code data} in the text .dat format through one reused direct buffer,
+     * with no per-cell Strings or print calls.
+     */
+    static void writeText(BoardData data, Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+        buffer.put((data.size + "\n" + data.startRow + " " + data.startCol + "\n").getBytes(StandardCharsets.US_ASCII));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            int i = 0;
+            for (int row = 0; row < data.size; row++) {
+                for (int col = 0; col < data.size; col++, i++) {
+                    if (buffer.remaining() < 3) {
+                        drain(buffer, channel);
+                    }
+                    int value = (data.cells[i >>> 1] >>> ((i & 1) << 2)) & 0xF;
+                    if (value > 9) {
+                        buffer.put((byte) '1');
+                        value -= 10;
+                    }
+                    buffer.put((byte) ('0' + value));
+                    buffer.put(col < data.size - 1 ? (byte) ' ' : (byte) '\n');
+                }
+            }
+            drain(buffer, channel);
+        }
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static BoardData readBinary(ByteBuffer buffer, String filename) throws IOException {
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("Board file " + filename + " is not a .gbd board.");
+        }
+        int size = buffer.getInt();
+        int startRow = buffer.getInt();
+        int startCol = buffer.getInt();
+        if (size < 1 || size > MAX_SIZE || buffer.remaining() != BoardData.packedLength(size)) {
+            throw new IOException("Board file " + filename + " is truncated or corrupted.");
+        }
+        byte[] cells = new byte[BoardData.packedLength(size)];
+        buffer.get(cells);
+        return newBoardData(size, startRow, startCol, cells, filename);
+    }
+
+    private static BoardData readText(ByteBuffer buffer, String filename) throws IOException {
+        TextReader in = new TextReader(buffer, filename);
+        int size = in.nextInt();
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IOException("Board file " + filename + " has invalid size " + size);
+        }
+        int startRow = in.nextInt();
+        int startCol = in.nextInt();
+
+        byte[] cells = new byte[BoardData.packedLength(size)];
+        int count = size * size;
+        for (int i = 0; i < count; i++) {
+            int value = in.nextInt();
+            if (value > 15) {
+                throw new IOException("Board file " + filename + " has value " + value + " at cell " + i + ", expected 0-15");
+            }
+            cells[i >>> 1] |= (byte) (value << ((i & 1) << 2));
+        }
+        in.expectEnd();
+        return newBoardData(size, startRow, startCol, cells, filename);
+    }
+
+    private static BoardData newBoardData(int size, int startRow, int startCol, byte[] cells, String filename)
+            throws IOException {
+        try {
+            return new BoardData(size, startRow, startCol, cells);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Board file " + filename + " is corrupted: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Minimal non-negative integer tokenizer over a byte buffer. Only ASCII space, tab, CR
+     * and LF separate numbers; any other byte (a BOM, a stray UTF-8 character) is an error.
+     */
+    private static final class TextReader {
+        private final ByteBuffer buffer;
+        private final String filename;
+
+        TextReader(ByteBuffer buffer, String filename) {
+            this.buffer = buffer;
+            this.filename = filename;
+        }
+
+        int nextInt() throws IOException {
+            int b = ' ';
+            while (isSeparator(b)) {
+                if (!buffer.hasRemaining()) {
+                    throw new IOException("Board file " + filename + " ends early.");
+                }
+                b = buffer.get() & 0xFF;
+            }
+            int value = 0;
+            int digits = 0;
+            while (b >= '0' && b <= '9') {
+                value = value * 10 + (b - '0');
+                if (++digits > 9) {
+                    throw new IOException("Board file " + filename + " has a number that is too long.");
+                }
+                if (!buffer.hasRemaining()) {
+                    return value;
+                }
+                b = buffer.get() & 0xFF;
+            }
+            if (digits == 0 || !isSeparator(b)) {
+                throw unexpected(b);
+            }
+            return value;
+        }
+
+        /** Fails unless only separators are left. */
+        void expectEnd() throws IOException {
+            while (buffer.hasRemaining()) {
+                int b = buffer.get() & 0xFF;
+                if (!isSeparator(b)) {
+                    throw unexpected(b);
+                }
+            }
+        }
+
+        private IOException unexpected(int b) {
+            return new IOException(String.format("Board file %s has unexpected byte 0x%02X at byte %d",
+                    filename, b, buffer.position() - 1));
+        }
+
+        private static boolean isSeparator(int b) {
+            return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package game;
+
+import java.io.PrintStream;
+
+/**
+ * Console output for games, as a {@link GameObserver}. Every frame is built in memory
+ * and written with a single {@code print}, so a 100x100 board costs one write per move
+ * instead of 10,000, and frames from concurrent games never interleave.
+ */
+public class BoardRenderer implements GameObserver {
+    public enum Mode {
+        QUIET,      // no output at all
+        SUMMARY,    // one line per finished game
+        FULL_TRACE; // the board after every move
+
+        /** Parses "quiet", "summary" or "full" (as used by the --render= flags). */
+        public static Mode parse(String name) {
+            switch (name.toLowerCase()) {
+                case "quiet": return QUIET;
+                case "summary": return SUMMARY;
+                case "full": case "full_trace": return FULL_TRACE;
+                default: throw new IllegalArgumentException("Unknown render mode: " + name);
+            }
+        }
+    }
+
+    private final Mode mode;
+    private final PrintStream out;
+    private final long frameDelayMillis;
+
+    public BoardRenderer(Mode mode, PrintStream out) {
+        this(mode, out, 0);
+    }
+
+    /** A renderer that pauses {@code frameDelayMillis} after every frame, for watching a game as an animation. */
+    public BoardRenderer(Mode mode, PrintStream out, long frameDelayMillis) {
+        this.mode = mode;
+        this.out = out;
+        this.frameDelayMillis = frameDelayMillis;
+    }
+
+    /** Observer for {@code mode} printing to System.out; QUIET needs no renderer at all. */
+    public static GameObserver forMode(Mode mode) {
+        return mode == Mode.QUIET ? GameObserver.QUIET : new BoardRenderer(mode, System.out);
+    }
+
+    @Override
+    public void onGameStart(String studentID, String boardFile, Board board) {
+        if (mode == Mode.FULL_TRACE) {
+            printFrame(board);
+        }
+    }
+
+    @Override
+    public void onMove(String studentID, Board board, int moveNumber, Move move) {
+        if (mode == Mode.FULL_TRACE) {
+            printFrame(board);
+        }
+    }
+
+    @Override
+    public void onGameEnd(String studentID, String boardFile, Board board, int moves) {
+        if (mode == Mode.SUMMARY) {
+            out.println(String.format("Player %s on %s: %d moves, %d cells deleted",
+                    studentID, boardFile, moves, board.getDeletedCount()));
+        }
+    }
+
+    private void printFrame(Board board) {
+        StringBuilder frame = new StringBuilder(board.getSize() * (3 * board.getSize() + 1));
+        board.render(frame);
+        out.print(frame);
+
+        if (frameDelayMillis > 0) {
+            try {
+                Thread.sleep(frameDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
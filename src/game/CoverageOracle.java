@@ -0,0 +1,288 @@
+package game;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Best known coverage (deleted cells, start cell included) of a board, used to normalize
+ * scores. Boards up to {@link #EXACT_MAX_SIZE} are solved exactly by a memoized DFS over
+ * every move sequence, unless it runs out of nodes; otherwise the result is the best of
+ * seeded playouts, a lower bound, reported with a loose upper bound (see
+ * {@link #staticUpperBound}). Both run on fork/join tasks and are deterministic.
+ */
+public final class CoverageOracle {
+    public static final int EXACT_MAX_SIZE = 12;
+
+    private static final long EXACT_NODE_LIMIT = 50_000_000L;
+    private static final int TABLE_CAPACITY = 1 << 20;
+    private static final int PLAYOUTS = 512;
+    private static final int PLAYOUTS_PER_TASK = 16;
+    private static final double RANDOM_MOVE_CHANCE = 0.2;
+
+    /** Best known coverage of one board. */
+    public static final class Coverage {
+        public final int best;        // deleted cells of the best line found
+        public final boolean exact;   // best is the true optimum
+        public final int upperBound;  // no line can delete more cells
+
+        Coverage(int best, boolean exact, int upperBound) {
+            this.best = best;
+            this.exact = exact;
+            this.upperBound = upperBound;
+        }
+
+        @Override
+        public String toString() {
+            return exact ? best + " (exact)" : best + " (upper bound " + upperBound + ")";
+        }
+    }
+
+    private CoverageOracle() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: java game.CoverageOracle <boardFile>...");
+            return;
+        }
+        for (String file : args) {
+            try {
+                long start = System.nanoTime();
+                Coverage coverage = evaluate(BoardLoader.load(file));
+                System.out.printf("%s: %s, %.1f ms%n", file, coverage, (System.nanoTime() - start) / 1e6);
+            } catch (IOException e) {
+                System.err.println("Error loading board: " + e.getMessage());
+            }
+        }
+    }
+
+    public static Coverage evaluate(BoardData data) {
+        return evaluate(data, ForkJoinPool.commonPool());
+    }
+
+    static Coverage evaluate(BoardData data, ForkJoinPool pool) {
+        int best = 0;
+        if (data.size <= EXACT_MAX_SIZE) {
+            ExactSearch search = new ExactSearch(new TranspositionTable(TABLE_CAPACITY), new AtomicLong(EXACT_NODE_LIMIT));
+            best = 1 + pool.invoke(new ExactTask(search, data.newBoard()));
+            if (search.nodesLeft.get() > 0) {
+                return new Coverage(best, true, best);
+            }
+        }
+        return new Coverage(Math.max(best, playouts(data, pool)), false, staticUpperBound(data));
+    }
+
+    /**
+     * Cells swept by the jumps of every position reachable from the start in the static
+     * jump graph, plus the start cell. From a cell, direction d leads to cell + v·d where
+     * v is the value of the first cell that way, as long as that stays on the board and
+     * the jump does not cross or land on the start cell, which is deleted from the first
+     * move on. Deleting cells only removes moves, so no line can sweep more; but on random
+     * boards nearly every cell is reachable this way, so the bound is close to N².
+     */
+    static int staticUpperBound(BoardData data) {
+        int n = data.size;
+        boolean[] reached = new boolean[n * n];
+        boolean[] swept = new boolean[n * n];
+        int[] queue = new int[n * n];
+        int head = 0, tail = 0;
+        int start = data.startRow * n + data.startCol;
+        reached[start] = true;
+        swept[start] = true;
+        queue[tail++] = start;
+        int count = 1;
+
+        while (head < tail) {
+            int cell = queue[head++];
+            int row = cell / n, col = cell % n;
+            for (int d = 0; d < Board.MAX_MOVES; d++) {
+                int rowStep = Board.DIR_ROW[d], colStep = Board.DIR_COL[d];
+                int firstRow = row + rowStep, firstCol = col + colStep;
+                if (firstRow < 0 || firstRow >= n || firstCol < 0 || firstCol >= n) {
+                    continue;
+                }
+                int length = data.getValueAt(firstRow, firstCol);
+                int targetRow = row + rowStep * length, targetCol = col + colStep * length;
+                if (length == 0 || targetRow < 0 || targetRow >= n || targetCol < 0 || targetCol >= n) {
+                    continue;
+                }
+                int step = rowStep * n + colStep;
+                if ((start - cell) % step == 0 && (start - cell) / step >= 1 && (start - cell) / step <= length) {
+                    continue; // ✅ Crosses the start cell, never legal
+                }
+                for (int k = 1, i = cell + step; k <= length; k++, i += step) {
+                    if (!swept[i]) {
+                        swept[i] = true;
+                        count++;
+                    }
+                }
+                int target = targetRow * n + targetCol;
+                if (!reached[target]) {
+                    reached[target] = true;
+                    queue[tail++] = target;
+                }
+            }
+        }
+        return count;
+    }
+
+    /** Shared state of one exact search: the memo table and the remaining node budget. */
+    private static final class ExactSearch {
+        final TranspositionTable table;
+        final AtomicLong nodesLeft;
+
+        ExactSearch(TranspositionTable table, AtomicLong nodesLeft) {
+            this.table = table;
+            this.nodesLeft = nodesLeft;
+        }
+
+        /** Most cells still deletable from this position, or a lower bound once the budget ran out. */
+        int search(Board board, int[][] buffers, int ply, long[] localNodes) {
+            if (++localNodes[0] == 4096) {
+                nodesLeft.addAndGet(-localNodes[0]);
+                localNodes[0] = 0;
+            }
+            long cached = table.probe(board.getHash());
+            if (cached != TranspositionTable.MISS) {
+                return TranspositionTable.value(cached);
+            }
+            if (ply == buffers.length) {
+                return 0; // deeper than any game on a board this size can go
+            }
+
+            int[] moves = buffers[ply];
+            int count = board.getPossibleMoves(moves);
+            int best = 0;
+            for (int i = 0; i < count && nodesLeft.get() > 0; i++) {
+                long undo = board.applyMove(moves[i]);
+                best = Math.max(best, Board.undoLength(undo) + search(board, buffers, ply + 1, localNodes));
+                board.undoMove(undo);
+            }
+            if (nodesLeft.get() > 0) {
+                table.store(board.getHash(), best, -1, 0, TranspositionTable.EXACT);
+            }
+            return best;
+        }
+    }
+
+    /** Exact search below one position, forking one subtask per move at the first two levels. */
+    private static final class ExactTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+        private static final int FORK_PLIES = 2;
+
+        private final ExactSearch search;
+        private final Board board;
+        private final int ply;
+
+        ExactTask(ExactSearch search, Board board) {
+            this(search, board, 0);
+        }
+
+        private ExactTask(ExactSearch search, Board board, int ply) {
+            this.search = search;
+            this.board = board;
+            this.ply = ply;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (ply == FORK_PLIES) {
+                long[] localNodes = new long[1];
+                int value = search.search(board, new int[board.getSize() * board.getSize()][Board.MAX_MOVES], ply,
+                        localNodes);
+                search.nodesLeft.addAndGet(-localNodes[0]);
+                return value;
+            }
+
+            int[] moves = new int[Board.MAX_MOVES];
+            int count = board.getPossibleMoves(moves);
+            List<ExactTask> tasks = new ArrayList<>(count);
+            List<Integer> lengths = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Board child = new Board(board);
+                lengths.add(Board.undoLength(child.applyMove(moves[i])));
+                tasks.add(new ExactTask(search, child, ply + 1));
+            }
+            int best = 0;
+            for (int i = 0; i < count; i++) {
+                tasks.get(i).fork();
+            }
+            for (int i = count - 1; i >= 0; i--) {
+                best = Math.max(best, lengths.get(i) + tasks.get(i).join());
+            }
+            return best;
+        }
+    }
+
+    /** Best coverage over {@link #PLAYOUTS} seeded playouts, run in batches on {@code pool}. */
+    private static int playouts(BoardData data, ForkJoinPool pool) {
+        SplittableRandom master = new SplittableRandom(data.newBoard().getHash() ^ data.size);
+        List<PlayoutTask> tasks = new ArrayList<>();
+        for (int i = 0; i < PLAYOUTS / PLAYOUTS_PER_TASK; i++) {
+            tasks.add(new PlayoutTask(data, master.split()));
+        }
+        return pool.invoke(new RecursiveTask<Integer>() {
+            @Override
+            protected Integer compute() {
+                int best = 0;
+                for (PlayoutTask task : invokeAll(tasks)) {
+                    best = Math.max(best, task.join());
+                }
+                return best;
+            }
+        });
+    }
+
+    /**
+     * Playouts that mostly pick the move leaving the most moves afterwards (ties broken
+     * at random) and sometimes a random move, to spread the lines out.
+     */
+    private static final class PlayoutTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+        private final BoardData data;
+        private final SplittableRandom random;
+
+        PlayoutTask(BoardData data, SplittableRandom random) {
+            this.data = data;
+            this.random = random;
+        }
+
+        @Override
+        protected Integer compute() {
+            int[] moves = new int[Board.MAX_MOVES];
+            int[] replies = new int[Board.MAX_MOVES];
+            int best = 0;
+            for (int p = 0; p < PLAYOUTS_PER_TASK; p++) {
+                Board board = data.newBoard();
+                int count;
+                while ((count = board.getPossibleMoves(moves)) > 0) {
+                    int choice = random.nextInt(count);
+                    if (random.nextDouble() >= RANDOM_MOVE_CHANCE) {
+                        int bestMobility = -1;
+                        int ties = 0;
+                        for (int i = 0; i < count; i++) {
+                            long undo = board.applyMove(moves[i]);
+                            int mobility = board.getPossibleMoves(replies);
+                            board.undoMove(undo);
+                            if (mobility > bestMobility) {
+                                bestMobility = mobility;
+                                choice = i;
+                                ties = 1;
+                            } else if (mobility == bestMobility && random.nextInt(++ties) == 0) {
+                                choice = i;
+                            }
+                        }
+                    }
+                    board.applyMove(moves[choice]);
+                }
+                best = Math.max(best, board.getDeletedCount());
+            }
+            return best;
+        }
+    }
+}
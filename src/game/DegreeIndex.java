@@ -0,0 +1,146 @@
+package game;
+
+/**
+ * Out- and in-degree of every cell in the current jump graph, kept up to date by
+ * {@link Board#applyMove(int)} and {@link Board#undoMove(long)} once enabled with
+ * {@link Board#enableDegreeIndex()}.
+ * <p>
+ * There is an edge from u to v in direction d when a player standing on u could
+ * legally jump to v right now: u is undeleted or the player cell, and the jump length
+ * from u that way (see {@link JumpTable}) lands on v with every cell up to v undeleted.
+ * So the out-degree of the player cell is the number of legal moves, and the in-degree
+ * of a cell is how many cells could still jump onto it (0 once it is deleted).
+ * <p>
+ * Deleting a cell only removes the edges whose path crosses it (at most
+ * {@link JumpTable#MAX_JUMP} sources per direction) and the edges leaving it, and undo
+ * adds the same ones back, so a move costs O(cells deleted), not O(N²). Cells are
+ * processed one at a time, interleaved with the board's bit flips, so every edge is
+ * counted exactly once.
+ */
+final class DegreeIndex {
+    private final byte[] out;
+    private final byte[] in; // up to 15 sources per direction, 120 in all
+    private int player;      // the deleted cell that is still a valid source, -1 while a move is half done
+
+    /** Builds the index for {@code board}'s position, O(N²). */
+    DegreeIndex(Board board) {
+        int size = board.getSize();
+        this.out = new byte[size * size];
+        this.in = new byte[size * size];
+        this.player = board.getPlayerCell();
+        for (int u = 0; u < out.length; u++) {
+            addOutEdges(board, u, 1);
+        }
+    }
+
+    DegreeIndex(DegreeIndex other) {
+        this.out = other.out.clone();
+        this.in = other.in.clone();
+        this.player = other.player;
+    }
+
+    /** Approximate heap bytes of a copy: the object and its two arrays. */
+    long copyBytes() {
+        return 24 + 2 * (16 + (long) out.length);
+    }
+
+    int outDegree(int cell) {
+        return out[cell];
+    }
+
+    int inDegree(int cell) {
+        return in[cell];
+    }
+
+    /**
+     * Deletes the {@code length} cells after {@code from} in {@code direction} on
+     * {@code board}, flipping each one through {@link Board#flipCell}, and updates the
+     * degrees. The board's player is still on {@code from}.
+     */
+    void deleteLine(Board board, int from, int direction, int length) {
+        int size = board.getSize();
+        int step = Board.DIR_ROW[direction] * size + Board.DIR_COL[direction];
+        addOutEdges(board, from, -1); // the old player cell is no source any more
+        player = -1;
+        for (int k = 1, cell = from + step; k <= length; k++, cell += step) {
+            addEdgesThrough(board, cell, -1);
+            if (k < length) {
+                addOutEdges(board, cell, -1);
+            }
+            board.flipCell(cell);
+        }
+        player = from + length * step;
+    }
+
+    /** Exact inverse of {@link #deleteLine}; the board's player is back on {@code from}. */
+    void restoreLine(Board board, int from, int direction, int length) {
+        int size = board.getSize();
+        int step = Board.DIR_ROW[direction] * size + Board.DIR_COL[direction];
+        player = -1;
+        for (int k = length, cell = from + length * step; k >= 1; k--, cell -= step) {
+            board.flipCell(cell);
+            if (k < length) {
+                addOutEdges(board, cell, 1);
+            }
+            addEdgesThrough(board, cell, 1);
+        }
+        player = from;
+        addOutEdges(board, from, 1);
+    }
+
+    /** Adds {@code delta} for every current edge leaving {@code u}. */
+    private void addOutEdges(Board board, int u, int delta) {
+        if (!isSource(board, u)) {
+            return;
+        }
+        int size = board.getSize();
+        int row = u / size, col = u % size;
+        for (int d = 0; d < Board.MAX_MOVES; d++) {
+            int length = board.jumpLength(u, d);
+            if (length != 0 && board.isJumpClear(row, col, d, length)) {
+                count(u, u + length * (Board.DIR_ROW[d] * size + Board.DIR_COL[d]), delta);
+            }
+        }
+    }
+
+    /** Adds {@code delta} for every current edge whose path (target included) crosses {@code cell}. */
+    private void addEdgesThrough(Board board, int cell, int delta) {
+        int size = board.getSize();
+        int row = cell / size, col = cell % size;
+        for (int d = 0; d < Board.MAX_MOVES; d++) {
+            int rowStep = Board.DIR_ROW[d], colStep = Board.DIR_COL[d];
+            for (int k = 1; k <= JumpTable.MAX_JUMP; k++) {
+                int sourceRow = row - k * rowStep, sourceCol = col - k * colStep;
+                if (sourceRow < 0 || sourceRow >= size || sourceCol < 0 || sourceCol >= size) {
+                    break;
+                }
+                int u = sourceRow * size + sourceCol;
+                int length = board.jumpLength(u, d);
+                if (length >= k && isSource(board, u) && board.isJumpClear(sourceRow, sourceCol, d, length)) {
+                    count(u, u + length * (rowStep * size + colStep), delta);
+                }
+            }
+        }
+    }
+
+    /** Number of cells whose out- or in-degree differs from an index rebuilt from scratch for {@code board}. */
+    int mismatches(Board board) {
+        DegreeIndex rebuilt = new DegreeIndex(board);
+        int mismatches = 0;
+        for (int i = 0; i < out.length; i++) {
+            if (out[i] != rebuilt.out[i] || in[i] != rebuilt.in[i]) {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    private boolean isSource(Board board, int u) {
+        return u == player || !board.isDeleted(u);
+    }
+
+    private void count(int source, int target, int delta) {
+        out[source] += delta;
+        in[target] += delta;
+    }
+}
@@ -0,0 +1,250 @@
+package game;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Exhaustive endgame search for players.
+ * <p>
+ * Once the region the player can still reach is small, heuristics are no longer
+ * needed: {@link #solve} searches every remaining line and returns the first move
+ * of the one that deletes the most cells. The region is a flood fill from the
+ * player: every cell a jump that is legal right now (same rules as
+ * {@link Board#getPossibleMoves}) would delete, followed transitively from the jump
+ * targets. Deleting cells only removes jumps, so nothing outside it can ever be
+ * deleted.
+ * <p>
+ * The search memoizes positions in a {@link TranspositionTable} kept for the whole
+ * game, so after the first endgame move the following ones are mostly table hits.
+ * It stops at the deadline or on interrupt and then returns the best move among the
+ * fully searched ones.
+ * <p>
+ * The threshold comes from the system property {@code greed.endgame.threshold}, else
+ * the ENDGAME_THRESHOLD file in the working directory, else {@link #DEFAULT_THRESHOLD}.
+ *
+ * <pre>
+ * EndgameSolver endgame = new EndgameSolver();
+ * if (endgame.isEndgame(board)) {
+ *     Move move = endgame.solve(board, System.nanoTime() + remainingNanos / 2);
+ * }
+ * </pre>
+ */
+public class EndgameSolver {
+    public static final int DEFAULT_THRESHOLD = 100;
+    public static final String THRESHOLD_PROPERTY = "greed.endgame.threshold";
+    public static final String THRESHOLD_FILE = "ENDGAME_THRESHOLD";
+
+    private static final int TABLE_CAPACITY = 1 << 18;
+    private static final int DEADLINE_CHECK_NODES = 1024;
+    private static final int REGION_SLACK = Board.MAX_MOVES * JumpTable.MAX_JUMP; // cells one expansion can sweep
+
+    private final int threshold;
+    private final TranspositionTable table = new TranspositionTable(TABLE_CAPACITY);
+    private int[][] buffers = new int[64][Board.MAX_MOVES]; // one move list per ply, grown on demand
+    private long[] sweptBits = new long[0], reachedBits = new long[0]; // isEndgame scratch, all clear between calls
+    private int[] sweptCells = new int[0], queue = new int[0];
+    private long deadlineNanos;
+    private int nodesUntilCheck;
+    private boolean stopped;
+
+    /** A solver using the configured threshold, see {@link #configuredThreshold()}. */
+    public EndgameSolver() {
+        this(configuredThreshold());
+    }
+
+    public EndgameSolver(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Endgame threshold must not be negative: " + threshold);
+        }
+        this.threshold = threshold;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /** Threshold from the system property, the ENDGAME_THRESHOLD file, or the default, in that order. */
+    public static int configuredThreshold() {
+        String value = System.getProperty(THRESHOLD_PROPERTY);
+        if (value == null) {
+            try {
+                value = new String(Files.readAllBytes(Paths.get(THRESHOLD_FILE)), StandardCharsets.US_ASCII);
+            } catch (NoSuchFileException e) {
+                return DEFAULT_THRESHOLD;
+            } catch (IOException e) {
+                System.err.println("Cannot read " + THRESHOLD_FILE + ": " + e.getMessage());
+                return DEFAULT_THRESHOLD;
+            }
+        }
+        value = value.trim();
+        if (value.isEmpty()) {
+            return DEFAULT_THRESHOLD;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring endgame threshold '" + value + "', using " + DEFAULT_THRESHOLD);
+            return DEFAULT_THRESHOLD;
+        }
+    }
+
+    /** Whether the reachable region has dropped to the threshold. */
+    public boolean isEndgame(Board board) {
+        int size = board.getSize();
+        int words = (size * size + 63) >>> 6;
+        if (sweptBits.length < words) {
+            sweptBits = new long[words];
+            reachedBits = new long[words];
+        }
+        int limit = threshold + 1;
+        if (sweptCells.length < limit + REGION_SLACK) {
+            sweptCells = new int[limit + REGION_SLACK];
+            queue = new int[limit + REGION_SLACK];
+        }
+        return reachableCells(board, limit, sweptBits, reachedBits, sweptCells, queue) <= threshold;
+    }
+
+    /**
+     * Number of undeleted cells the player could still delete (see the class comment),
+     * counting at most {@code limit}, so the cost stays small on a wide open board.
+     */
+    public static int reachableCells(Board board, int limit) {
+        int words = (board.getSize() * board.getSize() + 63) >>> 6;
+        return reachableCells(board, limit, new long[words], new long[words],
+                new int[limit + REGION_SLACK], new int[limit + REGION_SLACK]);
+    }
+
+    /**
+     * The flood fill on caller-owned scratch: two bitsets over the board's cells, which
+     * must be all clear and are left that way, and two lists of at least
+     * {@code limit + REGION_SLACK} entries. The fill stops once {@code limit} cells are
+     * swept, and expanding one cell sweeps at most {@link #REGION_SLACK} more, which also
+     * bounds the targets queued. Only the bits that were set get cleared again, so a call
+     * costs O(limit) whatever the board size.
+     */
+    private static int reachableCells(Board board, int limit, long[] sweptBits, long[] reachedBits,
+                                      int[] sweptCells, int[] queue) {
+        int size = board.getSize();
+        int swept = 0;
+        int head = 0, tail = 0;
+        int start = board.getPlayerCell();
+        reachedBits[start >>> 6] |= 1L << start;
+        queue[tail++] = start;
+
+        while (head < tail && swept < limit) {
+            int cell = queue[head++];
+            int row = cell / size, col = cell % size;
+            for (int d = 0; d < Board.MAX_MOVES; d++) {
+                int rowStep = Board.DIR_ROW[d], colStep = Board.DIR_COL[d];
+                int firstRow = row + rowStep, firstCol = col + colStep;
+                if (firstRow < 0 || firstRow >= size || firstCol < 0 || firstCol >= size) {
+                    continue;
+                }
+                int length = board.getValueAt(firstRow, firstCol); // 0 once deleted
+                int targetRow = row + rowStep * length, targetCol = col + colStep * length;
+                if (length == 0 || targetRow < 0 || targetRow >= size || targetCol < 0 || targetCol >= size) {
+                    continue;
+                }
+                int k = 2;
+                while (k <= length && !board.isVisited(row + rowStep * k, col + colStep * k)) {
+                    k++;
+                }
+                if (k <= length) {
+                    continue; // Blocked path
+                }
+                int step = rowStep * size + colStep;
+                for (int i = cell + step, end = cell + step * length; ; i += step) {
+                    if ((sweptBits[i >>> 6] & (1L << i)) == 0) {
+                        sweptBits[i >>> 6] |= 1L << i;
+                        sweptCells[swept++] = i;
+                    }
+                    if (i == end) {
+                        break;
+                    }
+                }
+                int target = targetRow * size + targetCol;
+                if ((reachedBits[target >>> 6] & (1L << target)) == 0) {
+                    reachedBits[target >>> 6] |= 1L << target;
+                    queue[tail++] = target;
+                }
+            }
+        }
+
+        for (int i = 0; i < swept; i++) {
+            sweptBits[sweptCells[i] >>> 6] = 0;
+        }
+        for (int i = 0; i < tail; i++) {
+            reachedBits[queue[i] >>> 6] = 0;
+        }
+        return Math.min(swept, limit);
+    }
+
+    /**
+     * First move of the line that deletes the most cells from here, or null if there is
+     * no move. Stops at {@code deadlineNanos} ({@link System#nanoTime()} based) or when
+     * the thread is interrupted; the board is always left as it was.
+     */
+    public Move solve(Board board, long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+        this.nodesUntilCheck = DEADLINE_CHECK_NODES;
+        this.stopped = false;
+
+        int[] moves = new int[Board.MAX_MOVES];
+        int count = board.getPossibleMoves(moves);
+        int bestMove = -1;
+        int best = -1;
+        for (int i = 0; i < count && !stopped; i++) {
+            long undo = board.applyMove(moves[i]);
+            int value = Board.undoLength(undo) + search(board, 0);
+            board.undoMove(undo);
+            if (!stopped && value > best) {
+                best = value;
+                bestMove = moves[i];
+            }
+        }
+        if (bestMove < 0 && count > 0) {
+            bestMove = moves[0]; // Out of time before the first move was searched
+        }
+        return bestMove < 0 ? null : new Move(board.rowOf(bestMove), board.colOf(bestMove));
+    }
+
+    /** Most cells still deletable from this position; meaningless once {@code stopped}. */
+    private int search(Board board, int ply) {
+        if (--nodesUntilCheck == 0) {
+            nodesUntilCheck = DEADLINE_CHECK_NODES;
+            if (System.nanoTime() >= deadlineNanos || Thread.currentThread().isInterrupted()) {
+                stopped = true;
+            }
+        }
+        if (stopped) {
+            return 0;
+        }
+        long cached = table.probe(board.getHash());
+        if (cached != TranspositionTable.MISS) {
+            return TranspositionTable.value(cached);
+        }
+        if (ply == buffers.length) {
+            buffers = Arrays.copyOf(buffers, 2 * ply);
+            for (int i = ply; i < buffers.length; i++) {
+                buffers[i] = new int[Board.MAX_MOVES];
+            }
+        }
+
+        int[] moves = buffers[ply];
+        int count = board.getPossibleMoves(moves);
+        int best = 0;
+        for (int i = 0; i < count && !stopped; i++) {
+            long undo = board.applyMove(moves[i]);
+            best = Math.max(best, Board.undoLength(undo) + search(board, ply + 1));
+            board.undoMove(undo);
+        }
+        if (!stopped) {
+            table.store(board.getHash(), best, -1, 0, TranspositionTable.EXACT);
+        }
+        return best;
+    }
+}
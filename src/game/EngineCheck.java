@@ -0,0 +1,155 @@
+package game;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Consistency check of the incremental engine structures against plain recomputation,
+ * on random boards with every cell value 0-15 (not just the 1-9 of the generated suites).
+ * <p>
+ * Plays random games with {@link Board#enableDegreeIndex()} on and, after every move and
+ * every undo, compares the maintained degrees with a rebuilt {@link DegreeIndex} and the
+ * player's out-degree with the number of legal moves. Then checks that {@link BoardLoader}
+ * rejects text boards with stray bytes (a UTF-8 character inside a row, a BOM) or extra
+ * values instead of loading a different board. Exits with status 1 on the first mismatch.
+ *
+ * Usage: java game.EngineCheck [--boards=N] [--seed=S]
+ */
+public class EngineCheck {
+    private static final int[] SIZES = {7, 12, 20, 33};
+    // Text boards that are not valid .dat files, each once loaded as a different board
+    private static final byte[][] CORRUPT_BOARDS = {
+            "2\n0 0\n1\u00e92 3\n4 5\n".getBytes(StandardCharsets.UTF_8), // é inside the first row
+            "\ufeff2\n0 0\n1 2\n3 4\n".getBytes(StandardCharsets.UTF_8),   // UTF-8 byte order mark
+            "2\n0 0\n1 2\n3 4\n5\n".getBytes(StandardCharsets.US_ASCII),     // a value past the last row
+    };
+
+    public static void main(String[] args) {
+        int boards = 20;
+        long seed = 1;
+        for (String arg : args) {
+            if (arg.startsWith("--boards=")) {
+                boards = Integer.parseInt(arg.substring("--boards=".length()));
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(arg.substring("--seed=".length()));
+            }
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        int games = 0;
+        int positions = 0;
+        for (int b = 0; b < boards; b++) {
+            int size = SIZES[b % SIZES.length];
+            int minValue = b % 2 == 0 ? 1 : 10; // ✅ Every other board only has jumps of 10-15
+            Board start = randomBoard(size, minValue, random);
+            String name = size + "x" + size + " values " + minValue + "-15 #" + b;
+            int checked = checkDegrees(start, random, name);
+            if (checked < 0) {
+                System.exit(1);
+            }
+            games++;
+            positions += checked;
+        }
+        System.out.println("✅ " + games + " games, " + positions + " positions: degree index matches a rebuild.");
+        if (!checkLoader()) {
+            System.exit(1);
+        }
+        System.out.println("✅ " + CORRUPT_BOARDS.length + " corrupted text boards rejected by BoardLoader.");
+    }
+
+    private static boolean checkLoader() {
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("greed-check");
+            Path valid = dir.resolve("valid.dat");
+            Files.write(valid, "2\r\n0 0\r\n1 2\r\n3\t4\r\n".getBytes(StandardCharsets.US_ASCII));
+            BoardLoader.load(valid.toString());
+            for (int i = 0; i < CORRUPT_BOARDS.length; i++) {
+                Path file = dir.resolve("corrupt" + i + ".dat");
+                Files.write(file, CORRUPT_BOARDS[i]);
+                try {
+                    BoardData data = BoardLoader.load(file.toString());
+                    System.err.println("❌ Corrupted board " + i + " loaded as a " + data.size + "x" + data.size + " board");
+                    return false;
+                } catch (IOException e) {
+                    // ✅ Rejected
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("❌ Loader check failed: " + e.getMessage());
+            return false;
+        } finally {
+            deleteQuietly(dir);
+        }
+    }
+
+    private static void deleteQuietly(Path dir) {
+        if (dir == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            // Left in the temp directory
+        }
+    }
+
+    /** Random cells in {@code minValue}..15, a few 0s, random start. */
+    static Board randomBoard(int size, int minValue, SplittableRandom random) {
+        int[][] grid = new int[size][size];
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                grid[r][c] = random.nextInt(20) == 0 ? 0 : minValue + random.nextInt(16 - minValue);
+            }
+        }
+        return new Board(size, grid, random.nextInt(size), random.nextInt(size));
+    }
+
+    /** Returns the number of positions checked, or -1 after printing the first mismatch. */
+    private static int checkDegrees(Board start, SplittableRandom random, String name) {
+        Board board = new Board(start);
+        board.enableDegreeIndex();
+        int[] moves = new int[Board.MAX_MOVES];
+        long[] undo = new long[board.getSize() * board.getSize()];
+        int depth = 0;
+        int checked = 0;
+        while (true) {
+            int count = board.getPossibleMoves(moves);
+            if (!matches(board, count, name + " after " + depth + " moves")) {
+                return -1;
+            }
+            checked++;
+            if (count == 0) {
+                break;
+            }
+            undo[depth++] = board.applyMove(moves[random.nextInt(count)]);
+        }
+        while (depth > 0) {
+            board.undoMove(undo[--depth]);
+            if (!matches(board, board.getPossibleMoves(moves), name + " undone to " + depth + " moves")) {
+                return -1;
+            }
+            checked++;
+        }
+        return checked;
+    }
+
+    private static boolean matches(Board board, int legalMoves, String where) {
+        int mismatches = board.degreeIndexMismatches();
+        int outDegree = board.getOutDegree(board.getPlayerCell());
+        if (mismatches == 0 && outDegree == legalMoves) {
+            return true;
+        }
+        System.err.println("❌ " + where + ": " + mismatches + " cells differ from a rebuild, out-degree "
+                + outDegree + " vs " + legalMoves + " legal moves");
+        return false;
+    }
+}
@@ -1,55 +1,131 @@
 package game;
 
-import java.util.*;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
-public class GameLogger {
-    private List<int[][]> boardHistory = new ArrayList<>();
-    private List<Move> moveHistory = new ArrayList<>();
-    private Board board;
+/**
+ * Move history of one game that can rebuild any earlier position.
+ * <p>
+ * Only the target cell of each move is stored (4 bytes per move), plus a keyframe
+ * (a {@link Board} copy, which shares the cell values and copies the four orderings of
+ * the deleted set, size² / 2 bytes, and the degree index if enabled, 2 size² bytes)
+ * every {@code keyframeInterval} moves. A position is rebuilt from
+ * the nearest earlier keyframe by replaying at most {@code keyframeInterval} moves.
+ * <p>
+ * With a memory cap, the oldest keyframes and the moves before the next one are
+ * dropped once the estimate exceeds it, so very long games keep their recent history
+ * only. Logging never prints or sleeps; use {@link #printState} or a
+ * {@link BoardRenderer} with a frame delay for animation.
+ */
+public class GameLogger implements GameObserver {
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 64;
+
+    private final Board board;
+    private final int keyframeInterval;
+    private final long maxBytes;
+
+    private final List<Board> keyframes = new ArrayList<>(); // keyframes.get(i) is the board after firstStep + i * interval moves
+    private long keyframeBytes;                               // sum of Board.copyBytes() over the keyframes
+    private int firstStep;                                    // oldest step that can still be rebuilt
+    private int[] targets = new int[64];                      // targets[i] is the target of move firstStep + i + 1
+    private int moveCount;
 
     public GameLogger(Board board) {
+        this(board, DEFAULT_KEYFRAME_INTERVAL, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param board            the live board; call {@link #logMove} after each move is applied to it
+     * @param keyframeInterval moves between keyframes (lower = faster {@link #stateAt}, more memory)
+     * @param maxBytes         approximate memory cap for the history
+     */
+    public GameLogger(Board board, int keyframeInterval, long maxBytes) {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Keyframe interval must be at least 1: " + keyframeInterval);
+        }
         this.board = board;
-        saveState();
+        this.keyframeInterval = keyframeInterval;
+        this.maxBytes = maxBytes;
+        addKeyframe();
     }
 
+    /** Records a move that has just been applied to the board. */
     public void logMove(Move move) {
-        moveHistory.add(move);
-        saveState();
-        printBoardState(move);  // Print board after each move
+        int offset = moveCount - firstStep;
+        if (offset == targets.length) {
+            targets = Arrays.copyOf(targets, targets.length * 2);
+        }
+        targets[offset] = move.getRow() * board.getSize() + move.getCol();
+        moveCount++;
+
+        if ((moveCount - firstStep) % keyframeInterval == 0) {
+            addKeyframe();
+            trimToCap();
+        }
+    }
+
+    @Override
+    public void onMove(String studentID, Board board, int moveNumber, Move move) {
+        logMove(move);
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /** Oldest step {@link #stateAt} can still rebuild; 0 unless the memory cap dropped history. */
+    public int getOldestStep() {
+        return firstStep;
     }
 
-    private void saveState() {
-        int[][] snapshot = new int[board.getSize()][board.getSize()];
-        for (int r = 0; r < board.getSize(); r++) {
-            for (int c = 0; c < board.getSize(); c++) {
-                snapshot[r][c] = board.getValueAt(r, c);
-            }
+    /** A copy of the board after {@code step} moves. */
+    public Board stateAt(int step) {
+        if (step < firstStep || step > moveCount) {
+            throw new IllegalArgumentException("Step " + step + " is outside " + firstStep + ".." + moveCount);
         }
-        boardHistory.add(snapshot);
-    }
-
-    private void printBoardState(Move move) {
-        System.out.println("\nStep " + moveHistory.size() + " - Player moved to: (" + move.getRow() + ", " + move.getCol() + ")");
-
-        int[][] latestBoard = boardHistory.get(boardHistory.size() - 1);
-        for (int r = 0; r < latestBoard.length; r++) {
-            for (int c = 0; c < latestBoard[r].length; c++) {
-                if (r == move.getRow() && c == move.getCol()) {
-                    System.out.print(" P ");  // Show player's position
-                } else if (latestBoard[r][c] == 0) {
-                    System.out.print(" . ");  // Empty cells already visited
-                } else {
-                    System.out.print(" " + latestBoard[r][c] + " ");
-                }
-            }
-            System.out.println();
+        int keyframe = Math.min((step - firstStep) / keyframeInterval, keyframes.size() - 1);
+        Board state = new Board(keyframes.get(keyframe));
+        for (int s = firstStep + keyframe * keyframeInterval; s < step; s++) {
+            state.applyMove(targets[s - firstStep]);
+        }
+        return state;
+    }
+
+    /** Prints the board after {@code step} moves in a single write. */
+    public void printState(int step, PrintStream out) {
+        Board state = stateAt(step);
+        StringBuilder frame = new StringBuilder();
+        frame.append(System.lineSeparator()).append("Step ").append(step);
+        if (step > 0) {
+            frame.append(" - Player moved to: (").append(state.getPlayerRow()).append(", ")
+                    .append(state.getPlayerCol()).append(")");
         }
+        frame.append(System.lineSeparator());
+        state.render(frame);
+        out.print(frame);
+    }
+
+    /** Approximate bytes held by the history. */
+    public long estimatedBytes() {
+        return keyframeBytes + 4L * targets.length;
+    }
+
+    private void addKeyframe() {
+        Board keyframe = new Board(board);
+        keyframes.add(keyframe);
+        keyframeBytes += keyframe.copyBytes();
+    }
 
-        // Optional: Add a delay for animation effect
-        try {
-            Thread.sleep(500);  // 500ms delay for readability
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+    private void trimToCap() {
+        while (keyframes.size() > 1 && estimatedBytes() > maxBytes) {
+            keyframeBytes -= keyframes.remove(0).copyBytes();
+            firstStep += keyframeInterval;
+            int remaining = moveCount - firstStep;
+            int[] kept = new int[Math.max(64, Integer.highestOneBit(Math.max(1, remaining)) * 2)];
+            System.arraycopy(targets, keyframeInterval, kept, 0, remaining);
+            targets = kept;
         }
     }
 }
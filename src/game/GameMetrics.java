@@ -0,0 +1,227 @@
+package game;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Timing and allocation figures for one game, filled in by the {@link Referee}.
+ * <p>
+ * Think time is measured by the referee, from handing the move to the player thread
+ * until its answer (or deadline) arrives, which is the time that counts against
+ * {@code MOVE_TIMEOUT_SECONDS}. Core wait is the time spent queueing for a core before
+ * the clock starts. Whatever is left of the game's wall time is referee overhead.
+ * Allocation uses the per-thread counters of the HotSpot {@code ThreadMXBean} and is
+ * reported as -1 where the JVM cannot measure it (e.g. the referee on a virtual thread).
+ */
+public class GameMetrics {
+    private static final double NEAR_TIMEOUT_FRACTION = 0.8;
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final long CORE_POLL_MILLIS = 10;
+
+    private final LatencyHistogram thinkTimes;
+    private long moveBudgetNanos;
+    private long initNanos;
+    private long gameNanos;
+    private long thinkNanos;
+    private long coreWaitNanos;
+    private int nearTimeoutMoves;
+    private int deadlineHits;
+    private boolean initFailed;
+    private long playerAllocatedBytes;
+    private long refereeAllocatedBytes = -1;
+    private final AtomicInteger heldCores = new AtomicInteger(); // live state of this JVM, never sent
+
+    public GameMetrics() {
+        this(new LatencyHistogram());
+    }
+
+    private GameMetrics(LatencyHistogram thinkTimes) {
+        this.thinkTimes = thinkTimes;
+    }
+
+    void recordInit(long nanos) {
+        initNanos = nanos;
+    }
+
+    /** One {@code nextMove} call; {@code allocatedBytes} is -1 if unknown. */
+    void recordMove(long thinkNanos, long coreWaitNanos, long budgetNanos, long allocatedBytes) {
+        thinkTimes.record(thinkNanos);
+        this.thinkNanos += thinkNanos;
+        this.coreWaitNanos += coreWaitNanos;
+        this.moveBudgetNanos = budgetNanos;
+        if (thinkNanos >= NEAR_TIMEOUT_FRACTION * budgetNanos) {
+            nearTimeoutMoves++;
+        }
+        if (allocatedBytes < 0 || playerAllocatedBytes < 0) {
+            playerAllocatedBytes = -1;
+        } else {
+            playerAllocatedBytes += allocatedBytes;
+        }
+    }
+
+    void recordDeadlineHit() {
+        deadlineHits++;
+    }
+
+    void recordInitFailure() {
+        initFailed = true;
+    }
+
+    void recordGame(long nanos, long refereeAllocatedBytes) {
+        this.gameNanos = nanos;
+        this.refereeAllocatedBytes = refereeAllocatedBytes;
+    }
+
+    public LatencyHistogram getThinkTimes() {
+        return thinkTimes;
+    }
+
+    public long getMoveBudgetNanos() {
+        return moveBudgetNanos;
+    }
+
+    public long getInitNanos() {
+        return initNanos;
+    }
+
+    public int getNearTimeoutMoves() {
+        return nearTimeoutMoves;
+    }
+
+    public int getDeadlineHits() {
+        return deadlineHits;
+    }
+
+    public boolean isInitFailed() {
+        return initFailed;
+    }
+
+    /**
+     * Whether the game's score may depend on how loaded the machine was: the player hit a
+     * move deadline or failed to initialize (possibly by running out of its init time).
+     */
+    public boolean isLoadDependent() {
+        return deadlineHits > 0 || initFailed;
+    }
+
+    /**
+     * Core permits of the {@link GameScheduler} held by this game's player code right now:
+     * its constructor or {@code nextMove} thread, plus any helper cores. Once the game is
+     * over this is 0 unless a player thread ignored its interrupt and is still running.
+     */
+    public int getHeldCores() {
+        return heldCores.get();
+    }
+
+    /** Counter behind {@link #getHeldCores()}, for the scheduler and the player to update. */
+    AtomicInteger heldCores() {
+        return heldCores;
+    }
+
+    /** Waits up to {@code millis} for {@link #getHeldCores()} to drop to 0 and returns whether it did. */
+    boolean awaitCoresReleased(long millis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        while (heldCores.get() > 0) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            Thread.sleep(CORE_POLL_MILLIS);
+        }
+        return true;
+    }
+
+    /** Game wall time not spent thinking or waiting for a core: move checks, observers, replay logs. */
+    public long getRefereeOverheadNanos() {
+        return Math.max(0, gameNanos - coreWaitNanos - thinkNanos);
+    }
+
+    public double getMovesPerSecond() {
+        return gameNanos == 0 ? 0 : thinkTimes.getCount() * 1e9 / gameNanos;
+    }
+
+    /** Bytes allocated so far by the calling thread, or -1 if the JVM cannot tell. */
+    static long currentThreadAllocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getCurrentThreadAllocatedBytes();
+            }
+        }
+        return -1;
+    }
+
+    /** Writes every figure, for {@link #readFrom}; used to send a game's metrics between JVMs. */
+    void writeTo(DataOutput out) throws IOException {
+        thinkTimes.writeTo(out);
+        out.writeLong(moveBudgetNanos);
+        out.writeLong(initNanos);
+        out.writeLong(gameNanos);
+        out.writeLong(thinkNanos);
+        out.writeLong(coreWaitNanos);
+        out.writeInt(nearTimeoutMoves);
+        out.writeInt(deadlineHits);
+        out.writeBoolean(initFailed);
+        out.writeLong(playerAllocatedBytes);
+        out.writeLong(refereeAllocatedBytes);
+    }
+
+    static GameMetrics readFrom(DataInput in) throws IOException {
+        GameMetrics metrics = new GameMetrics(LatencyHistogram.readFrom(in));
+        metrics.moveBudgetNanos = in.readLong();
+        metrics.initNanos = in.readLong();
+        metrics.gameNanos = in.readLong();
+        metrics.thinkNanos = in.readLong();
+        metrics.coreWaitNanos = in.readLong();
+        metrics.nearTimeoutMoves = in.readInt();
+        metrics.deadlineHits = in.readInt();
+        metrics.initFailed = in.readBoolean();
+        metrics.playerAllocatedBytes = in.readLong();
+        metrics.refereeAllocatedBytes = in.readLong();
+        return metrics;
+    }
+
+    /** One JSON object (no line break) describing this game, times in microseconds. */
+    public String toJson(String studentID, String boardFile, int boardSize, int deletedCells) {
+        StringBuilder json = new StringBuilder(384);
+        json.append("{\"type\":\"game\",\"student\":\"").append(escape(studentID))
+                .append("\",\"board\":\"").append(escape(boardFile))
+                .append("\",\"size\":").append(boardSize)
+                .append(",\"deleted\":").append(deletedCells)
+                .append(",\"moves\":").append(thinkTimes.getCount())
+                .append(",\"initMicros\":").append(initNanos / 1000)
+                .append(",\"gameMicros\":").append(gameNanos / 1000)
+                .append(",\"coreWaitMicros\":").append(coreWaitNanos / 1000)
+                .append(",\"refereeOverheadMicros\":").append(getRefereeOverheadNanos() / 1000)
+                .append(",\"movesPerSecond\":").append(String.format(Locale.ROOT, "%.1f", getMovesPerSecond()));
+        appendTiming(json, thinkTimes, moveBudgetNanos, nearTimeoutMoves, deadlineHits);
+        json.append(",\"playerAllocatedBytes\":").append(playerAllocatedBytes)
+                .append(",\"refereeAllocatedBytes\":").append(refereeAllocatedBytes)
+                .append('}');
+        return json.toString();
+    }
+
+    /** The {@code "think"} and timeout fields shared by game and per-player summary lines. */
+    static void appendTiming(StringBuilder json, LatencyHistogram think, long budgetNanos, int nearTimeout,
+                             int deadlineHits) {
+        json.append(",\"think\":{\"count\":").append(think.getCount())
+                .append(",\"meanMicros\":").append(String.format(Locale.ROOT, "%.1f", think.getMean() / 1000))
+                .append(",\"p50Micros\":").append(think.getValueAtPercentile(50) / 1000)
+                .append(",\"p90Micros\":").append(think.getValueAtPercentile(90) / 1000)
+                .append(",\"p99Micros\":").append(think.getValueAtPercentile(99) / 1000)
+                .append(",\"p999Micros\":").append(think.getValueAtPercentile(99.9) / 1000)
+                .append(",\"maxMicros\":").append(think.getMax() / 1000)
+                .append("},\"budgetMicros\":").append(budgetNanos / 1000)
+                .append(",\"nearTimeoutMoves\":").append(nearTimeout)
+                .append(",\"deadlineHits\":").append(deadlineHits);
+    }
+
+    static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,19 @@
+package game;
+
+/**
+ * Receives the progress of a game from the {@link Referee}, on the referee thread.
+ * All methods default to doing nothing; {@link #QUIET} is the no-op observer.
+ */
+public interface GameObserver {
+    GameObserver QUIET = new GameObserver() { };
+
+    default void onGameStart(String studentID, String boardFile, Board board) {
+    }
+
+    /** Called after every applied move; {@code board} already reflects it. */
+    default void onMove(String studentID, Board board, int moveNumber, Move move) {
+    }
+
+    default void onGameEnd(String studentID, String boardFile, Board board, int moves) {
+    }
+}
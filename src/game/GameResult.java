@@ -0,0 +1,25 @@
+package game;
+
+/** Outcome of one (student, board) game in a tournament. */
+class GameResult {
+    final String studentID;
+    final String boardFile;
+    final int boardSize;
+    final int gameNumber;
+    final int deletedCells;
+    final GameMetrics metrics;
+
+    GameResult(String studentID, String boardFile, int boardSize, int gameNumber, int deletedCells,
+               GameMetrics metrics) {
+        this.studentID = studentID;
+        this.boardFile = boardFile;
+        this.boardSize = boardSize;
+        this.gameNumber = gameNumber;
+        this.deletedCells = deletedCells;
+        this.metrics = metrics;
+    }
+
+    double percentage() {
+        return 100.0 * deletedCells / ((double) boardSize * boardSize);
+    }
+}
@@ -0,0 +1,156 @@
+package game;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors shared by every game of a tournament, created once instead of per move.
+ * <p>
+ * Games (the referee loop, which mostly waits on player futures) run on virtual threads
+ * when the JVM has them (Java 21+) and on a small platform pool otherwise. Player code
+ * ({@code nextMove} and constructors) runs on a separate cached pool, but only while the
+ * referee holds one of {@code parallelism} core permits. That keeps CPU-bound player code
+ * at one thread per core, and since the referee starts the move clock only after it got
+ * a permit, a player's timeout is not eaten by other games queueing for the CPU.
+ * <p>
+ * The permit belongs to the player task, not to the referee: it is only given back when
+ * the task's thread actually returns, so a player that ignores the interrupt after its
+ * deadline keeps its core counted as busy for as long as it spins. (A player that never
+ * stops keeps it for good; run untrusted players under {@link TournamentCoordinator},
+ * whose workers restart once a game ends with player code still holding a core.) Every
+ * player task counts its permit in the game's {@link GameMetrics#getHeldCores()} until
+ * it is released, so such a game can be told apart from the ones after it.
+ */
+public class GameScheduler implements AutoCloseable {
+    private static GameScheduler shared;
+
+    private final int parallelism;
+    private final Semaphore cores;
+    private final ExecutorService gameExecutor;
+    private final ExecutorService playerExecutor;
+
+    public GameScheduler(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.cores = new Semaphore(parallelism, true);
+        this.gameExecutor = newGameExecutor(parallelism);
+        // Cached: a player that ignores interrupts keeps its thread, the next move gets a fresh one
+        this.playerExecutor = Executors.newCachedThreadPool(daemonThreads("player"));
+    }
+
+    /** Scheduler used by the single-game {@link Referee} entry points, one permit per core. */
+    public static synchronized GameScheduler shared() {
+        if (shared == null) {
+            shared = new GameScheduler(Runtime.getRuntime().availableProcessors());
+        }
+        return shared;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /** Runs a whole game (referee loop included) concurrently with the others. */
+    public <T> Future<T> submitGame(Callable<T> game) {
+        return gameExecutor.submit(game);
+    }
+
+    /**
+     * Blocks until a core is free for player code. The permit is handed to the next
+     * {@link #submitPlayerTask}; give it back with {@link #releaseCore()} only if no task is submitted.
+     */
+    void acquireCore() throws InterruptedException {
+        cores.acquire();
+    }
+
+    void releaseCore() {
+        cores.release();
+    }
+
+    /**
+     * Takes up to {@code wanted} more permits without waiting (but without jumping ahead of
+     * referees already queued for one) and returns how many it got, for a player's helper
+     * threads. Each one must be given back with {@link #releaseCore()}.
+     */
+    int tryAcquireCores(int wanted) {
+        int granted = 0;
+        try {
+            while (granted < wanted && cores.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                granted++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return granted;
+    }
+
+    /**
+     * Runs player code on the core permit the caller acquired, which is released when the
+     * task's thread is done with it: when the task returns or throws, or when it is
+     * cancelled before it started. Cancelling a running task only interrupts it; its
+     * permit stays taken until the thread really stops. {@code heldCores} counts the
+     * permit for as long as it is taken.
+     */
+    <T> Future<T> submitPlayerTask(Callable<T> task, AtomicInteger heldCores) {
+        AtomicBoolean claimed = new AtomicBoolean(); // whoever sets it releases the permit
+        heldCores.incrementAndGet();
+        FutureTask<T> future = new FutureTask<>(() -> {
+            if (!claimed.compareAndSet(false, true)) {
+                return null;
+            }
+            try {
+                return task.call();
+            } finally {
+                releaseCore(heldCores);
+            }
+        }) {
+            @Override
+            protected void done() {
+                if (isCancelled() && claimed.compareAndSet(false, true)) {
+                    releaseCore(heldCores); // ✅ Cancelled before it ever ran
+                }
+            }
+        };
+        try {
+            playerExecutor.execute(future);
+        } catch (RejectedExecutionException e) {
+            if (claimed.compareAndSet(false, true)) {
+                releaseCore(heldCores);
+            }
+            throw e;
+        }
+        return future;
+    }
+
+    private void releaseCore(AtomicInteger heldCores) {
+        heldCores.decrementAndGet();
+        cores.release();
+    }
+
+    @Override
+    public void close() {
+        gameExecutor.shutdown();
+        playerExecutor.shutdownNow();
+    }
+
+    private static ExecutorService newGameExecutor(int parallelism) {
+        try {
+            // ✅ Virtual threads when available, looked up reflectively so this still compiles on Java 17
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(2 * parallelism, daemonThreads("game"));
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
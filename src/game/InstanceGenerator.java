@@ -1,39 +1,154 @@
 package game;
 
-import java.io.*;
-import java.util.Random;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
 
+/**
+ * Generates board instances with values 1-9 and a random start cell.
+ * <p>
+ * Single board (as before): {@code java game.InstanceGenerator <outputFile> <size> [seed]}.
+ * <p>
+ * Whole suite: {@code java game.InstanceGenerator --suite <dir> --seed=S [--sizes=10,25,50,100]
+ * [--count=5] [--format=dat|gbd] [--threads=N]} writes {@code board_<n>x<n>_<i>.<format>}
+ * for every size and i = 1..count. Every board gets its own {@link SplittableRandom}
+ * stream, split off the master seed in a fixed order before any work starts, so the
+ * boards are generated in parallel and still come out identical for the same seed,
+ * whatever the thread count. A suite can therefore be regenerated instead of stored.
+ */
 public class InstanceGenerator {
+    private static final String USAGE = "Usage: java game.InstanceGenerator <outputFile> <size> [seed]  (a .gbd outputFile writes the binary format)\n"
+            + "       java game.InstanceGenerator --suite <dir> --seed=S [--sizes=10,25,50,100] [--count=5] [--format=dat|gbd] [--threads=N]";
+
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--suite")) {
+            generateSuite(args);
+            return;
+        }
         if (args.length < 2) {
-            System.err.println("Usage: java game.InstanceGenerator <outputFile> <size>");
+            System.err.println(USAGE);
             return;
         }
 
         String filename = args[0];
         int size = Integer.parseInt(args[1]);
+        SplittableRandom random = args.length > 2 ? new SplittableRandom(Long.parseLong(args[2])) : new SplittableRandom();
 
-        generateBoard(filename, size);
+        try {
+            write(generate(random, size), filename);
+        } catch (IOException e) {
+            System.err.println("Error generating board: " + e.getMessage());
+        }
     }
 
-    private static void generateBoard(String filename, int size) {
-        Random rand = new Random();
+    /** A board drawn from {@code random}: the start cell first, then the values row by row. */
+    static BoardData generate(SplittableRandom random, int size) {
+        int startRow = random.nextInt(size);
+        int startCol = random.nextInt(size);
+        byte[] cells = new byte[BoardData.packedLength(size)];
+        int count = size * size;
+        for (int i = 0; i < count; i++) {
+            cells[i >>> 1] |= (byte) ((random.nextInt(9) + 1) << ((i & 1) << 2)); // ✅ Random number between 1-9
+        }
+        return new BoardData(size, startRow, startCol, cells);
+    }
 
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
-            writer.println(size); // ✅ First line: board size
-            int startRow = rand.nextInt(size);
-            int startCol = rand.nextInt(size);
-            writer.println(startRow + " " + startCol); // ✅ Second line: start position
+    /** Writes {@code data} as .gbd or .dat, chosen by the file extension. */
+    static void write(BoardData data, String filename) throws IOException {
+        if (filename.endsWith(BoardLoader.BINARY_EXTENSION)) {
+            BoardLoader.writeBinary(data, Paths.get(filename));
+        } else {
+            BoardLoader.writeText(data, Paths.get(filename));
+        }
+    }
 
-            for (int i = 0; i < size; i++) {
-                for (int j = 0; j < size; j++) {
-                    writer.print(rand.nextInt(9) + 1); // ✅ Random number between 1-9
-                    if (j < size - 1) writer.print(" ");
+    private static void generateSuite(String[] args) {
+        if (args.length < 2 || args[1].startsWith("--")) {
+            System.err.println(USAGE);
+            return;
+        }
+        File dir = new File(args[1]);
+        Long seed = null;
+        int[] sizes = {10, 25, 50, 100};
+        int count = 5;
+        String extension = ".dat";
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int a = 2; a < args.length; a++) {
+            String arg = args[a];
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(value);
+            } else if (arg.startsWith("--sizes=")) {
+                String[] parts = value.split(",");
+                sizes = new int[parts.length];
+                for (int i = 0; i < parts.length; i++) {
+                    sizes[i] = Integer.parseInt(parts[i].trim());
                 }
-                writer.println();
+            } else if (arg.startsWith("--count=")) {
+                count = Integer.parseInt(value);
+            } else if (arg.startsWith("--format=")) {
+                extension = "." + value;
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(value);
+            } else {
+                System.err.println("Unknown option " + arg + "\n" + USAGE);
+                return;
             }
+        }
+        if (seed == null) {
+            System.err.println("A suite needs --seed=S so it can be regenerated.\n" + USAGE);
+            return;
+        }
+
+        dir.mkdirs();
+        try {
+            List<String> files = generateSuite(dir, seed, sizes, count, extension, threads);
+            System.out.println("Generated " + files.size() + " boards in " + dir + " from seed " + seed);
         } catch (IOException e) {
-            System.err.println("Error generating board: " + e.getMessage());
+            System.err.println("Error generating boards: " + e.getMessage());
+        } catch (InterruptedException e) {
+            System.err.println("🔴 Board generation interrupted.");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Writes the suite into {@code dir} on {@code threads} threads and returns the file names in order. */
+    static List<String> generateSuite(File dir, long seed, int[] sizes, int count, String extension, int threads)
+            throws IOException, InterruptedException {
+        SplittableRandom master = new SplittableRandom(seed);
+        List<String> files = new ArrayList<>();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int size : sizes) {
+            for (int i = 1; i <= count; i++) {
+                String filename = new File(dir, "board_" + size + "x" + size + "_" + i + extension).getPath();
+                SplittableRandom random = master.split(); // ✅ Split here, in order, not inside the task
+                files.add(filename);
+                tasks.add(() -> {
+                    write(generate(random, size), filename);
+                    return null;
+                });
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            for (Future<Void> task : executor.invokeAll(tasks)) {
+                try {
+                    task.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
         }
+        return files;
     }
 }
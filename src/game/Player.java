@@ -1,7 +1,12 @@
 package game;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public abstract class Player {
     protected Board board;
+    private volatile Move publishedMove;
+    private volatile GameScheduler scheduler; // set by the Referee once constructed
+    private volatile AtomicInteger heldCores = new AtomicInteger(); // the game's GameMetrics.heldCores(), same time
 
     public Player(Board board) {
         this.board = board;
@@ -13,4 +18,62 @@ public abstract class Player {
      *  🚀 This method will now be wrapped with a timeout in Referee.java
      */
     public abstract Move nextMove();
-}
\ No newline at end of file
+
+    /**
+     * Deadline-aware entry point; this is what the Referee calls. {@code remainingNanos}
+     * is the time left before the move timeout. The default ignores it and calls
+     * {@link #nextMove()}.
+     * <p>
+     * Anytime strategies (e.g. iterative deepening) can override this, call
+     * {@link #publishMove(Move)} whenever they find a better move and keep searching.
+     * If the deadline hits, the Referee interrupts the thread and plays the last
+     * published move instead of ending the game. The board must be back in its
+     * original state once the thread stops (undo every move tried on it), since the
+     * Referee applies the published move to it.
+     */
+    public Move nextMove(long remainingNanos) {
+        return nextMove();
+    }
+
+    /** Records the best move found so far this turn, to be played if the deadline hits. */
+    protected final void publishMove(Move move) {
+        publishedMove = move;
+    }
+
+    /**
+     * For searches that run extra threads: takes up to {@code wanted} more cores from the
+     * game's {@link GameScheduler} without waiting and returns how many were granted (0 if
+     * every core is busy). Start at most that many extra threads, and have each one call
+     * {@link #releaseHelperCore()} when it ends, even after the move was returned. The
+     * thread running {@code nextMove} already holds a core and needs none.
+     */
+    protected final int acquireHelperCores(int wanted) {
+        int granted = wanted <= 0 ? 0 : scheduler().tryAcquireCores(wanted);
+        heldCores.addAndGet(granted);
+        return granted;
+    }
+
+    /** Gives back one core taken with {@link #acquireHelperCores(int)}. */
+    protected final void releaseHelperCore() {
+        heldCores.decrementAndGet();
+        scheduler().releaseCore();
+    }
+
+    /** Attaches the game's scheduler and the counter of the cores its player code holds. */
+    final void attachScheduler(GameScheduler scheduler, AtomicInteger heldCores) {
+        this.heldCores = heldCores;
+        this.scheduler = scheduler;
+    }
+
+    private GameScheduler scheduler() {
+        GameScheduler attached = scheduler;
+        return attached != null ? attached : GameScheduler.shared();
+    }
+
+    /** Returns the move published this turn, if any, and resets it for the next turn. */
+    final Move takePublishedMove() {
+        Move move = publishedMove;
+        publishedMove = null;
+        return move;
+    }
+}
@@ -0,0 +1,252 @@
+package game;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes replay logs ({@link ReplayWriter}) on one background thread, so disk writes
+ * never happen between the moves of a game.
+ * <p>
+ * The referee records moves into a {@link Recording}, which hands them over in
+ * batches of {@link #BATCH_MOVES}; a handed-over batch is never touched again by the
+ * referee. Batches wait in a bounded queue: if the disk cannot keep up, the referee
+ * blocks on a full queue instead of buffering without limit. {@link Recording#finish()}
+ * returns once the game's file is completely written and closed. The file is only
+ * created by the writer thread, so nothing is written when nothing is recorded.
+ * <p>
+ * One service is meant to serve a whole tournament; {@link #shared()} is used by the
+ * single-game {@link Referee} entry points.
+ */
+public class RecordingService implements AutoCloseable {
+    static final int BATCH_MOVES = 256;
+    private static final int DEFAULT_CAPACITY = 1024; // batches, so at most ~6 MB of pending moves
+    private static final Batch STOP = new Batch(null, null, null, 0, true);
+    private static RecordingService shared;
+
+    private final File dir;
+    private final BlockingQueue<Batch> queue;
+    private final Thread writer;
+    private final List<Recording> open = new ArrayList<>(); // writer thread only
+
+    public RecordingService(File dir) {
+        this(dir, DEFAULT_CAPACITY);
+    }
+
+    public RecordingService(File dir, int capacity) {
+        this.dir = dir;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::run, "recording-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /** Service writing to snapshots/, never closed. */
+    public static synchronized RecordingService shared() {
+        if (shared == null) {
+            shared = new RecordingService(new File("snapshots"));
+        }
+        return shared;
+    }
+
+    /** Starts recording a game from {@code board}'s current position into {@code <dir>/<name>.grp}. */
+    Recording start(String name, Board board) {
+        return new Recording(new File(dir, name + ReplayWriter.EXTENSION), board);
+    }
+
+    /** Writes everything queued so far, then stops the writer thread. */
+    @Override
+    public void close() {
+        putUninterruptibly(STOP);
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Batch> batches = new ArrayList<>();
+        try {
+            while (true) {
+                batches.add(queue.take());
+                queue.drainTo(batches); // ✅ One wake-up for everything that piled up
+                for (Batch batch : batches) {
+                    if (batch == STOP) {
+                        return;
+                    }
+                    batch.recording.write(batch);
+                }
+                batches.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Recording recording : new ArrayList<>(open)) {
+                recording.close(new IOException("Recording service stopped before the game ended"));
+            }
+        }
+    }
+
+    /** Queues {@code batch}, waiting while the queue is full; fails once the writer thread has stopped. */
+    private void put(Batch batch) throws InterruptedException {
+        while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            checkWriterAlive();
+        }
+    }
+
+    private void putUninterruptibly(Batch batch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                put(batch);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkWriterAlive() {
+        if (!writer.isAlive()) {
+            throw new IllegalStateException("Recording service is closed");
+        }
+    }
+
+    /** Moves handed over to the writer thread; immutable once queued. */
+    private static final class Batch {
+        final Recording recording;
+        final int[] targets;
+        final long[] undos;
+        final int count;
+        final boolean last;
+
+        Batch(Recording recording, int[] targets, long[] undos, int count, boolean last) {
+            this.recording = recording;
+            this.targets = targets;
+            this.undos = undos;
+            this.count = count;
+            this.last = last;
+        }
+    }
+
+    /**
+     * One game being recorded. {@link #move} and {@link #finish} are called by the referee
+     * thread only; the replay file is opened, written and closed by the writer thread.
+     */
+    final class Recording {
+        private final File file;
+        private final int size, startRow, startCol;
+        private final byte[] cells; // shared read-only, see BoardData
+        private int[] targets = new int[BATCH_MOVES];
+        private long[] undos = new long[BATCH_MOVES];
+        private int count;
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        // Writer thread only; error is published to the referee by the latch
+        private ReplayWriter replay;
+        private IOException error;
+        private boolean done;
+
+        private Recording(File file, Board board) {
+            this.file = file;
+            this.size = board.getSize();
+            this.startRow = board.getPlayerRow();
+            this.startCol = board.getPlayerCol();
+            this.cells = board.packedCells();
+        }
+
+        /** Records a move to {@code targetCell} with the undo record {@link Board#applyMove(int)} returned. */
+        void move(int targetCell, long undo) throws InterruptedException {
+            targets[count] = targetCell;
+            undos[count] = undo;
+            if (++count == BATCH_MOVES) {
+                put(new Batch(this, targets, undos, count, false)); // ⏳ Blocks while the queue is full
+                targets = new int[BATCH_MOVES];
+                undos = new long[BATCH_MOVES];
+                count = 0;
+            }
+        }
+
+        /**
+         * Hands over the remaining moves and waits until the file is written and closed,
+         * even if the thread is interrupted meanwhile (the interrupt is kept).
+         */
+        void finish() throws IOException {
+            putUninterruptibly(new Batch(this, targets, undos, count, true));
+            targets = null;
+            undos = null;
+            boolean interrupted = false;
+            boolean writerGone = false;
+            while (closed.getCount() > 0 && !writerGone) {
+                try {
+                    writerGone = !closed.await(100, TimeUnit.MILLISECONDS) && !writer.isAlive();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (closed.getCount() > 0) {
+                throw new IOException("Recording service closed before " + file + " was written");
+            }
+            if (error != null) {
+                throw new IOException("Cannot write " + file + ": " + error.getMessage(), error);
+            }
+        }
+
+        private void write(Batch batch) {
+            if (done) {
+                return;
+            }
+            try {
+                if (replay == null) {
+                    file.getParentFile().mkdirs();
+                    replay = new ReplayWriter(file.toPath(), size, startRow, startCol, cells);
+                    open.add(this);
+                }
+                for (int i = 0; i < batch.count; i++) {
+                    replay.writeMove(batch.targets[i], batch.undos[i]);
+                }
+            } catch (IOException | RuntimeException e) {
+                close(e instanceof IOException ? (IOException) e : new IOException(e));
+                return;
+            }
+            if (batch.last) {
+                close(null);
+            }
+        }
+
+        private void close(IOException failure) {
+            error = failure;
+            done = true;
+            open.remove(this);
+            try {
+                if (replay != null) {
+                    replay.close();
+                }
+            } catch (IOException e) {
+                if (error == null) {
+                    error = e;
+                }
+            } finally {
+                closed.countDown();
+            }
+        }
+    }
+}
@@ -4,74 +4,177 @@ import java.io.*;
 import java.util.concurrent.*;
 
 public class Referee {
+    public static final int ENGINE_VERSION = 1; // 🔢 Bump whenever a rule or referee change can change a score (invalidates ResultStore)
     private static final int INIT_TIMEOUT_SECONDS = 2;  // ⏳ Max time for player constructor
     private static final int MOVE_TIMEOUT_SECONDS = 1;  // ⏳ Max time per move
+    private static final long MOVE_GRACE_MILLIS = 100;  // ⏳ Time an interrupted player gets to stop touching the board
 
     public static int playGame(Player player, String studentID, String boardFile, boolean enableSnapshots) {
+        return playGame(player, studentID, boardFile, enableSnapshots, GameScheduler.shared(),
+                BoardRenderer.forMode(BoardRenderer.Mode.FULL_TRACE));
+    }
+
+    /**
+     * Plays a game with player code running on {@code scheduler}'s shared executors.
+     * Console output, if any, is left to {@code observer} (e.g. a {@link BoardRenderer}).
+     */
+    public static int playGame(Player player, String studentID, String boardFile, boolean enableSnapshots,
+                               GameScheduler scheduler, GameObserver observer) {
+        return playGame(player, studentID, boardFile, enableSnapshots ? RecordingService.shared() : null, scheduler,
+                observer, new GameMetrics());
+    }
+
+    /**
+     * Same as above, recording think times, referee overhead and allocation into {@code metrics}.
+     * Moves go to {@code recorder} as the replay log Player&lt;id&gt;_Board&lt;n&gt;.grp, or nowhere if it is null.
+     */
+    public static int playGame(Player player, String studentID, String boardFile, RecordingService recorder,
+                               GameScheduler scheduler, GameObserver observer, GameMetrics metrics) {
+        long gameStart = System.nanoTime();
+        long allocatedAtStart = GameMetrics.currentThreadAllocatedBytes();
         int moves = 0;
         int score = 1; // Minimum participation score (avoid complete failure)
-        int boardNumber = extractBoardNumber(boardFile);
-        File snapshotFile = new File(String.format("snapshots/Player%s_Board%d.txt", studentID, boardNumber));
-
-        ExecutorService executor = Executors.newSingleThreadExecutor(); // Timeout manager
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(snapshotFile))) {
-            if (enableSnapshots) {
-                saveSnapshot(player.board, writer, 0, true);
-            }
+        RecordingService.Recording recording = recorder == null ? null
+                : startRecording(recorder, player.board, studentID, boardFile);
+        try {
+            observer.onGameStart(studentID, boardFile, player.board);
 
             while (!player.board.isGameOver()) {
-                Future<Move> futureMove = executor.submit(player::nextMove);
-                Move move;
-
-                try {
-                    move = futureMove.get(MOVE_TIMEOUT_SECONDS, TimeUnit.SECONDS); // ⏳ Timeout for moves
-                } catch (TimeoutException e) {
-                    System.err.println("⏳ Timeout: Player " + studentID + " took too long to move! Ending game.");
-                    break;
-                } catch (Exception e) {
-                    System.err.println("❌ Runtime error in nextMove() for Player " + studentID + ": " + e.getMessage());
-                    break;
-                }
+                Move move = requestMove(player, studentID, scheduler, metrics);
 
                 if (move == null) break;
-                if (!player.board.applyMove(move)) {
+                long undo = player.board.applyMoveWithUndo(move);
+                if (undo == Board.ILLEGAL_MOVE) {
                     System.err.println("🚫 Invalid move by Player " + studentID + ": " + move);
                     break;
                 }
 
                 moves++;
                 score = player.board.getScore();
-                player.board.printBoard();
+                observer.onMove(studentID, player.board, moves, move);
 
-                if (enableSnapshots) {
-                    saveSnapshot(player.board, writer, moves, false);
+                if (recording != null) {
+                    recording.move(player.board.getPlayerCell(), undo); // ✅ Queued, written off this thread
                 }
 
                 Thread.sleep(0);
             }
-        } catch (IOException e) {
-            System.err.println("📝 Error writing snapshot for Player " + studentID + ": " + e.getMessage());
+            observer.onGameEnd(studentID, boardFile, player.board, moves);
         } catch (InterruptedException e) {
             System.err.println("🔴 Interrupted during execution for Player " + studentID);
             Thread.currentThread().interrupt();
-        } finally {
-            executor.shutdownNow();
+        }
+        if (recording != null) {
+            try {
+                recording.finish(); // ✅ The replay log is complete once the game is over
+            } catch (IOException e) {
+                System.err.println("📝 Error writing snapshot for Player " + studentID + ": " + e.getMessage());
+            }
         }
 
+        long allocatedAtEnd = GameMetrics.currentThreadAllocatedBytes();
+        metrics.recordGame(System.nanoTime() - gameStart,
+                allocatedAtStart < 0 || allocatedAtEnd < 0 ? -1 : allocatedAtEnd - allocatedAtStart);
         return score;
     }
 
+    /**
+     * Runs one {@code nextMove} call on a free core and returns its move, or null if the game
+     * should end (timeout without a published move, or a runtime error). The move clock only
+     * starts once a core is free, so waiting for other games does not count against the player.
+     */
+    private static Move requestMove(Player player, String studentID, GameScheduler scheduler, GameMetrics metrics)
+            throws InterruptedException {
+        long budgetNanos = TimeUnit.SECONDS.toNanos(MOVE_TIMEOUT_SECONDS);
+        CountDownLatch finished = new CountDownLatch(1);
+        long[] allocated = {-1}; // written by the player thread before it counts down
+        player.takePublishedMove(); // Discard anything left over from the last turn
+
+        long waitStart = System.nanoTime();
+        scheduler.acquireCore();
+        long moveStart = System.nanoTime();
+        // The task owns the core permit from here and returns it when its thread is done
+        Future<Move> futureMove = scheduler.submitPlayerTask(() -> {
+            long before = GameMetrics.currentThreadAllocatedBytes();
+            try {
+                return player.nextMove(budgetNanos);
+            } finally {
+                long after = GameMetrics.currentThreadAllocatedBytes();
+                allocated[0] = before < 0 || after < 0 ? -1 : after - before;
+                finished.countDown();
+            }
+        }, metrics.heldCores());
+
+        try {
+            Move move = futureMove.get(budgetNanos, TimeUnit.NANOSECONDS); // ⏳ Timeout for moves
+            finished.await(); // the allocation figure is written just after the move is returned
+            metrics.recordMove(System.nanoTime() - moveStart, moveStart - waitStart, budgetNanos, allocated[0]);
+            return move;
+        } catch (TimeoutException e) {
+            Move move = takeMoveAfterDeadline(player, futureMove, finished);
+            metrics.recordDeadlineHit();
+            metrics.recordMove(System.nanoTime() - moveStart, moveStart - waitStart, budgetNanos,
+                    finished.getCount() == 0 ? allocated[0] : -1);
+            if (move == null) {
+                System.err.println("⏳ Timeout: Player " + studentID + " took too long to move! Ending game.");
+                if (finished.getCount() != 0) {
+                    System.err.println("🔥 Player " + studentID + " ignores the interrupt; its core stays taken until it stops.");
+                }
+            } else {
+                System.err.println("⏳ Deadline: Player " + studentID + " ran out of time, playing its best move so far.");
+            }
+            return move;
+        } catch (ExecutionException e) {
+            System.err.println("❌ Runtime error in nextMove() for Player " + studentID + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Interrupts a player that overran its move deadline and returns the move it published
+     * with {@link Player#publishMove(Move)}, or null if it published none or does not stop
+     * within the grace period (its thread may still be using the board).
+     */
+    private static Move takeMoveAfterDeadline(Player player, Future<Move> futureMove, CountDownLatch finished)
+            throws InterruptedException {
+        futureMove.cancel(true);
+        if (!finished.await(MOVE_GRACE_MILLIS, TimeUnit.MILLISECONDS)) {
+            return null;
+        }
+        return player.takePublishedMove();
+    }
+
     public static Player initializePlayer(String studentID, Board board) {
-        ExecutorService executor = Executors.newSingleThreadExecutor();
-        Future<Player> future = executor.submit(() -> {
+        return initializePlayer(studentID, board, GameScheduler.shared());
+    }
+
+    /** Constructs the player on a free core of {@code scheduler}, within the init timeout. */
+    public static Player initializePlayer(String studentID, Board board, GameScheduler scheduler) {
+        return initializePlayer(studentID, board, scheduler, new GameMetrics());
+    }
+
+    /** Same as above, recording the constructor's time against its budget into {@code metrics}. */
+    public static Player initializePlayer(String studentID, Board board, GameScheduler scheduler,
+                                          GameMetrics metrics) {
+        try {
+            scheduler.acquireCore();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+
+        long initStart = System.nanoTime();
+        Future<Player> future = scheduler.submitPlayerTask(() -> {
             try {
                 Class<?> playerClass = Class.forName("players.Player" + studentID);
-                return (Player) playerClass.getDeclaredConstructor(Board.class).newInstance(board);
+                Player player = (Player) playerClass.getDeclaredConstructor(Board.class).newInstance(board);
+                player.attachScheduler(scheduler, metrics.heldCores()); // ✅ Helpers take the same permits
+                return player;
             } catch (Exception e) {
                 return null; // ❌ Failed to initialize
             }
-        });
+        }, metrics.heldCores());
 
         try {
             return future.get(INIT_TIMEOUT_SECONDS, TimeUnit.SECONDS); // ⏳ Max 2 sec for initialization
@@ -82,7 +185,8 @@ public class Referee {
             System.err.println("❌ Error initializing player " + studentID + ": " + e.getMessage());
             return null;
         } finally {
-            executor.shutdownNow();
+            metrics.recordInit(System.nanoTime() - initStart);
+            future.cancel(true); // its permit is released once the constructor really returns
         }
     }
 
@@ -94,20 +198,9 @@ public class Referee {
         }
     }
 
-    private static void saveSnapshot(Board board, BufferedWriter writer, int step, boolean isInitial) throws IOException {
-        writer.write((isInitial ? "Initial Board:\n" : "Step " + step + ":\n"));
-        for (int i = 0; i < board.getSize(); i++) {
-            for (int j = 0; j < board.getSize(); j++) {
-                if (i == board.getPlayerRow() && j == board.getPlayerCol()) {
-                    writer.write("* ");
-                } else if (board.isVisited(i, j)) {
-                    writer.write("  "); // ✅ Ensures visited cells are empty
-                } else {
-                    writer.write(board.getValueAt(i, j) + " ");
-                }
-            }
-            writer.newLine();
-        }
-        writer.newLine();
+    /** Replay log Player&lt;id&gt;_Board&lt;n&gt;.grp in the recorder's directory, readable with {@link Replay}. */
+    private static RecordingService.Recording startRecording(RecordingService recorder, Board board, String studentID,
+                                                             String boardFile) {
+        return recorder.start(String.format("Player%s_Board%d", studentID, extractBoardNumber(boardFile)), board);
     }
 }
@@ -0,0 +1,104 @@
+package game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a replay log written by {@link ReplayWriter} and rebuilds the board at any step.
+ *
+ * Usage: java game.Replay &lt;file.grp&gt; [step | all]   (default: the final position)
+ */
+public class Replay {
+    private final BoardData initial;
+    private final int[] targets;
+    private final byte[] runs;
+
+    private Replay(BoardData initial, int[] targets, byte[] runs) {
+        this.initial = initial;
+        this.targets = targets;
+        this.runs = runs;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: java game.Replay <file.grp> [step | all]");
+            return;
+        }
+        try {
+            Replay replay = open(args[0]);
+            if (args.length == 2 && args[1].equals("all")) {
+                for (int step = 0; step <= replay.getMoveCount(); step++) {
+                    replay.print(step);
+                }
+            } else {
+                replay.print(args.length == 2 ? Integer.parseInt(args[1]) : replay.getMoveCount());
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading replay: " + e.getMessage());
+        }
+    }
+
+    /** Loads a replay; a record cut short by a crash mid-write is ignored. */
+    public static Replay open(String filename) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.BIG_ENDIAN);
+        }
+        if (buffer.remaining() < ReplayWriter.HEADER_BYTES || buffer.getInt() != ReplayWriter.MAGIC) {
+            throw new IOException(filename + " is not a replay log.");
+        }
+        int size = buffer.getInt();
+        int startRow = buffer.getInt();
+        int startCol = buffer.getInt();
+        if (size < 1 || buffer.remaining() < BoardData.packedLength(size)) {
+            throw new IOException(filename + " is truncated.");
+        }
+        byte[] cells = new byte[BoardData.packedLength(size)];
+        buffer.get(cells);
+
+        int moves = buffer.remaining() / ReplayWriter.MOVE_BYTES;
+        int[] targets = new int[moves];
+        byte[] runs = new byte[moves];
+        for (int i = 0; i < moves; i++) {
+            targets[i] = buffer.getInt();
+            runs[i] = buffer.get();
+        }
+        try {
+            return new Replay(new BoardData(size, startRow, startCol, cells), targets, runs);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(filename + " is corrupted: " + e.getMessage());
+        }
+    }
+
+    public int getMoveCount() {
+        return targets.length;
+    }
+
+    /** The board after {@code step} moves (0 = the initial board). */
+    public Board boardAt(int step) throws IOException {
+        if (step < 0 || step > targets.length) {
+            throw new IllegalArgumentException("Step " + step + " is outside 0.." + targets.length);
+        }
+        Board board = initial.newBoard();
+        for (int i = 0; i < step; i++) {
+            long undo = board.applyMove(targets[i]);
+            if (undo == Board.ILLEGAL_MOVE
+                    || (Board.undoDirection(undo) << 4 | Board.undoLength(undo)) != (runs[i] & 0xFF)) {
+                throw new IOException("Replay does not match the board at move " + (i + 1));
+            }
+        }
+        return board;
+    }
+
+    private void print(int step) throws IOException {
+        Board board = boardAt(step);
+        StringBuilder frame = new StringBuilder();
+        frame.append(step == 0 ? "Initial Board:" : "Step " + step + ":").append(System.lineSeparator());
+        board.render(frame);
+        System.out.println(frame);
+    }
+}
@@ -0,0 +1,77 @@
+package game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a game as a compact replay log instead of a full grid per move.
+ * <p>
+ * Format (big-endian): the magic "GRP1"; size, startRow and startCol as ints; the
+ * initial cells packed as in a .gbd file; then one 5-byte record per move: the target
+ * cell ({@code row * size + col}) as an int and one byte holding the direction (high
+ * nibble) and the number of deleted cells (low nibble). A 100x100 game is ~5 KB plus
+ * 5 bytes per move. Everything goes through one buffer and one channel write per
+ * 64 KB. {@link Replay} reads it back.
+ */
+final class ReplayWriter implements Closeable {
+    static final String EXTENSION = ".grp";
+    static final int MAGIC = 0x47525031; // "GRP1"
+    static final int HEADER_BYTES = 16;
+    static final int MOVE_BYTES = 5;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.BIG_ENDIAN);
+
+    /** Creates {@code path} and records {@code board} as the initial position. */
+    ReplayWriter(Path path, Board board) throws IOException {
+        this(path, board.getSize(), board.getPlayerRow(), board.getPlayerCol(), board.packedCells());
+    }
+
+    /** Same as above from the position's parts, so it can run on a thread that does not own the board. */
+    ReplayWriter(Path path, int size, int startRow, int startCol, byte[] packedCells) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.putInt(MAGIC).putInt(size).putInt(startRow).putInt(startCol);
+        ByteBuffer cells = ByteBuffer.wrap(packedCells);
+        while (cells.hasRemaining()) {
+            int chunk = Math.min(cells.remaining(), buffer.remaining());
+            ByteBuffer slice = cells.slice();
+            slice.limit(chunk);
+            buffer.put(slice);
+            cells.position(cells.position() + chunk);
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+        }
+    }
+
+    /** Records a move to {@code targetCell} given the undo record {@link Board#applyMove(int)} returned. */
+    void writeMove(int targetCell, long undo) throws IOException {
+        if (buffer.remaining() < MOVE_BYTES) {
+            flush();
+        }
+        buffer.putInt(targetCell).put((byte) (Board.undoDirection(undo) << 4 | Board.undoLength(undo)));
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package game;
+
+import java.io.*;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Results of past games, kept across tournaments so a re-run only plays the games whose
+ * inputs changed.
+ * <p>
+ * A result is keyed by the SHA-256 of the compiled player (players/Player&lt;id&gt;.class
+ * and, when loaded from a directory, every class in players/ compiled from
+ * Player&lt;id&gt;.java, nested or top-level helper), the SHA-256 of the board file,
+ * {@link Referee#ENGINE_VERSION} and the SHA-256 of the engine (every class of the game
+ * package, or the jar holding them) together with every {@code greed.*} system property,
+ * since those tune players such as {@code greed.mcts.millis}. A resubmitted student gets
+ * new class bytes and so a new key; a regenerated but identical board keeps its key.
+ * Games whose outcome depends on the machine load (a move deadline was hit, or the
+ * player failed to initialize, see {@link GameMetrics#isLoadDependent()}) are not stored.
+ * <p>
+ * The file is an append-only log: a header, then one length-prefixed record per game,
+ * appended and flushed as soon as the game ends. An interrupted tournament therefore
+ * resumes from its last finished game. A record cut short by a crash is dropped (and
+ * the file truncated) when the store is opened. Delete the file to replay everything.
+ */
+final class ResultStore implements Closeable {
+    static final String DEFAULT_FILE = "results/ResultStore.bin";
+    private static final int MAGIC = 0x47525332; // "GRS2"
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    private final File file;
+    private final String engine; // ":<ENGINE_VERSION>:<engine hash>", the end of every key
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, String> playerHashes = new HashMap<>();
+    private final Map<String, String> boardHashes = new HashMap<>();
+    private final Map<File, String> sourceFiles = new HashMap<>(); // players/ class file -> its SourceFile, "" if none
+    private final DataOutputStream out;
+
+    /** Opens (or creates) the store in {@code file} and loads every result of this engine version. */
+    ResultStore(File file) throws IOException {
+        this.file = file;
+        this.engine = ":" + Referee.ENGINE_VERSION + ":" + engineHash();
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        long valid = load();
+        if (valid < file.length()) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(valid); // ✂️ Drop the record a crash cut short
+            }
+        }
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+        if (valid == 0) {
+            out.writeInt(MAGIC);
+            out.flush();
+        }
+    }
+
+    /** Number of results this engine and these settings can reuse. */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Key of {@code studentID}'s game on {@code boardFile}, or null if the player class is
+     * not on the classpath (such games are always played; they score 0 anyway).
+     */
+    synchronized String key(String studentID, String boardFile) throws IOException {
+        String player = playerHashes.get(studentID);
+        if (player == null) {
+            player = playerHash(studentID);
+            if (player == null) {
+                return null;
+            }
+            playerHashes.put(studentID, player);
+        }
+        String board = boardHashes.get(boardFile);
+        if (board == null) {
+            board = hex(sha256().digest(Files.readAllBytes(new File(boardFile).toPath())));
+            boardHashes.put(boardFile, board);
+        }
+        return player + ':' + board + engine;
+    }
+
+    /** The stored result for {@code key} as a result of {@code studentID} on {@code board}, or null. */
+    synchronized GameResult get(String key, String studentID, Tournament.BoardEntry board) {
+        Entry entry = key == null ? null : entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        return new GameResult(studentID, board.file, board.data.size, board.gameNumber, entry.deletedCells,
+                entry.metrics);
+    }
+
+    /**
+     * Appends {@code result} under {@code key} and flushes it, so it survives the JVM.
+     * Load-dependent results are skipped, so they are played again next time. A failed
+     * write is reported but never fails the game: the result is just not reused.
+     */
+    synchronized void put(String key, GameResult result) {
+        if (key == null || result.metrics.isLoadDependent()) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream record = new DataOutputStream(bytes);
+            record.writeUTF(key);
+            record.writeInt(result.deletedCells);
+            result.metrics.writeTo(record);
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+            out.flush();
+            entries.put(key, new Entry(result.deletedCells, result.metrics));
+        } catch (IOException e) {
+            System.err.println("Error writing " + file + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Reads every complete record and returns the length of the valid prefix of the file,
+     * 0 if it was written in another format (it is then started over).
+     */
+    private long load() throws IOException {
+        if (!file.exists() || file.length() == 0) {
+            return 0;
+        }
+        long valid;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                System.err.println("⚠️ " + file + " is not in the current result store format, starting it over.");
+                return 0;
+            }
+            valid = Integer.BYTES;
+            while (true) {
+                String key;
+                int deletedCells;
+                GameMetrics metrics;
+                int length;
+                try {
+                    length = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD_BYTES) {
+                        break;
+                    }
+                    byte[] payload = new byte[length];
+                    in.readFully(payload);
+                    DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                    key = record.readUTF();
+                    deletedCells = record.readInt();
+                    metrics = GameMetrics.readFrom(record);
+                } catch (EOFException e) {
+                    break; // End of the log, or a record cut short: everything from here on is dropped
+                }
+                if (key.endsWith(engine)) {
+                    entries.put(key, new Entry(deletedCells, metrics)); // ✅ The latest record of a key wins
+                }
+                valid += Integer.BYTES + length;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Hash of players.Player&lt;id&gt; and every class compiled from the same source file
+     * (nested classes and package-private helpers alike), or null if there is no such
+     * class. A class without a SourceFile attribute counts when it is named Player&lt;id&gt;$*.
+     */
+    private String playerHash(String studentID) throws IOException {
+        String name = "Player" + studentID;
+        URL url = ResultStore.class.getClassLoader().getResource("players/" + name + ".class");
+        if (url == null) {
+            return null;
+        }
+        MessageDigest sha = sha256();
+        hashClassFiles(sha, url, f -> {
+            if (!f.getName().endsWith(".class")) {
+                return false;
+            }
+            String source = sourceFiles.computeIfAbsent(f, ResultStore::sourceFile);
+            return source.equals(name + ".java") || source.isEmpty() && f.getName().startsWith(name + "$");
+        });
+        return hex(sha.digest());
+    }
+
+    /**
+     * The SourceFile attribute of a class file, or "" if it has none or cannot be read
+     * (such a file is then only hashed by its name, see {@link #playerHash}).
+     */
+    private static String sourceFile(File classFile) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(classFile)))) {
+            if (in.readInt() != 0xCAFEBABE) {
+                return "";
+            }
+            in.skipBytes(4); // minor, major version
+            int count = in.readUnsignedShort();
+            String[] utf8 = new String[count];
+            for (int i = 1; i < count; i++) {
+                int tag = in.readUnsignedByte();
+                switch (tag) {
+                    case 1: utf8[i] = in.readUTF(); break;                           // Utf8
+                    case 7: case 8: case 16: case 19: case 20: in.skipBytes(2); break; // Class, String, MethodType, Module, Package
+                    case 15: in.skipBytes(3); break;                                  // MethodHandle
+                    case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18: in.skipBytes(4); break;
+                    case 5: case 6: in.skipBytes(8); i++; break;                      // Long, Double take two slots
+                    default: return "";
+                }
+            }
+            in.skipBytes(6); // access flags, this class, super class
+            in.skipBytes(2 * in.readUnsignedShort()); // interfaces
+            for (int members = 0; members < 2; members++) { // fields, then methods
+                for (int n = in.readUnsignedShort(); n > 0; n--) {
+                    in.skipBytes(6); // access flags, name, descriptor
+                    skipAttributes(in);
+                }
+            }
+            for (int n = in.readUnsignedShort(); n > 0; n--) {
+                int attributeName = in.readUnsignedShort();
+                int length = in.readInt();
+                if ("SourceFile".equals(utf8[attributeName]) && length == 2) {
+                    String source = utf8[in.readUnsignedShort()];
+                    return source != null ? source : "";
+                }
+                in.skipBytes(length);
+            }
+            return "";
+        } catch (IOException | ArrayIndexOutOfBoundsException e) {
+            return "";
+        }
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        for (int n = in.readUnsignedShort(); n > 0; n--) {
+            in.skipBytes(2);
+            in.skipBytes(in.readInt());
+        }
+    }
+
+    /** Hash of the game package's classes (or the jar holding them) and every greed.* system property. */
+    private static String engineHash() throws IOException {
+        MessageDigest sha = sha256();
+        URL url = Referee.class.getResource("Referee.class");
+        if ("jar".equals(url.getProtocol())) {
+            URL jar = ((JarURLConnection) url.openConnection()).getJarFileURL();
+            try (InputStream in = jar.openStream()) {
+                sha.update(in.readAllBytes());
+            }
+        } else {
+            hashClassFiles(sha, url, f -> f.getName().endsWith(".class"));
+        }
+        for (String name : new TreeSet<>(System.getProperties().stringPropertyNames())) {
+            if (name.startsWith("greed.")) {
+                sha.update((name + '=' + System.getProperty(name) + '\n').getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return hex(sha.digest());
+    }
+
+    /**
+     * Hashes the class file at {@code url} and, when it was loaded from a directory, the
+     * files next to it that {@code siblings} accepts, in name order.
+     */
+    private static void hashClassFiles(MessageDigest sha, URL url, Predicate<File> siblings) throws IOException {
+        try (InputStream in = url.openStream()) {
+            sha.update(in.readAllBytes());
+        }
+        if (!"file".equals(url.getProtocol())) {
+            return;
+        }
+        File dir;
+        try {
+            dir = new File(url.toURI()).getParentFile();
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        File[] files = dir.listFiles(f -> siblings.test(f));
+        if (files != null) {
+            Arrays.sort(files);
+            for (File f : files) {
+                sha.update(f.getName().getBytes(StandardCharsets.UTF_8));
+                sha.update(Files.readAllBytes(f.toPath()));
+            }
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Every JVM has SHA-256", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static final class Entry {
+        final int deletedCells;
+        final GameMetrics metrics;
+
+        Entry(int deletedCells, GameMetrics metrics) {
+            this.deletedCells = deletedCells;
+            this.metrics = metrics;
+        }
+    }
+}
@@ -1,18 +1,35 @@
 package game;
 
 import java.io.*;
-import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
 
 public class Tester {
     private static final boolean ENABLE_SNAPSHOTS = false;
 
     public static void main(String[] args) {
-        if (false) {
-            System.err.println("Usage: java game.Tester <studentID>");
+        BoardRenderer.Mode renderMode = BoardRenderer.Mode.FULL_TRACE;
+        List<String> positional = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--render=")) {
+                renderMode = BoardRenderer.Mode.parse(arg.substring("--render=".length()));
+            } else {
+                positional.add(arg);
+            }
+        }
+        if (positional.size() > 2) {
+            System.err.println("Usage: java game.Tester [--render=quiet|summary|full] [studentID] | [boardFile studentID]");
+            return;
+        }
+        GameObserver observer = BoardRenderer.forMode(renderMode);
+
+        if (positional.size() == 2) {
+            // Single game, as run_all_tests_updated.bat does: last line is "<studentID> <deleted cells>"
+            runTest(positional.get(0), positional.get(1), observer);
             return;
         }
 
-        String studentID = "20220808060"; // Student ID
+        String studentID = positional.size() == 1 ? positional.get(0) : "20220808060"; // Student ID
 
         double totalPercentage = 0;
         int totalTests = 0;
@@ -27,7 +44,7 @@ public class Tester {
 
                 // Eğer dosya mevcutsa testi çalıştır
                 if (boardFile != null) {
-                    double boardScore = runTest(boardFile, studentID);
+                    double boardScore = runTest(boardFile, studentID, observer);
                     totalPercentage += boardScore;
                     totalTests++;
                 }
@@ -73,10 +90,10 @@ public class Tester {
         return boardFile;
     }
 
-    private static double runTest(String boardFile, String studentID) {
+    private static double runTest(String boardFile, String studentID, GameObserver observer) {
         BoardData data;
         try {
-            data = loadBoardData(boardFile);
+            data = BoardCache.shared().get(boardFile);
         } catch (IOException e) {
             System.err.println("Error loading board data: " + e.getMessage());
             return 0;
@@ -87,84 +104,45 @@ public class Tester {
             return 0;
         }
 
-        Board board = new Board(data.size, data.grid, data.startRow, data.startCol);
-
-        Player player = null;
-        try {
-            player = Referee.initializePlayer(studentID, board);
-            if (player == null) {
-                System.out.println(studentID + " 1");
-                return 0;
-            }
-        } catch (Exception e) {
-            System.err.println("Error initializing player " + studentID + ": " + e.getMessage());
-            System.out.println(studentID + " 1");
-            return 0;
-        }
-
-        int finalScore = Referee.playGame(player, studentID, boardFile, ENABLE_SNAPSHOTS);
-
-        int deletedCount = 0;
-        try {
-            Field visitedField = board.getClass().getDeclaredField("visited");
-            visitedField.setAccessible(true);
-            boolean[][] visited = (boolean[][]) visitedField.get(board);
-
-            for (int i = 0; i < visited.length; i++) {
-                for (int j = 0; j < visited[0].length; j++) {
-                    if (visited[i][j]) {
-                        deletedCount++;
-                    }
-                }
-            }
-
-        } catch (Exception e) {
-            System.err.println("Could not access deleted squares: " + e.getMessage());
-        }
+        int deletedCount = playBoard(data, boardFile, studentID, ENABLE_SNAPSHOTS ? RecordingService.shared() : null,
+                GameScheduler.shared(), observer, new GameMetrics());
 
         int boardSize = data.size;
         int totalCells = boardSize * boardSize;
         double percentageVisited = (double) deletedCount / totalCells * 100;
         System.out.println(boardFile);
         System.out.println("Percentage visited: " + String.format("%.2f%%", percentageVisited));
+        System.out.println(studentID + " " + deletedCount);
 
         return percentageVisited;
     }
 
-    private static BoardData loadBoardData(String filename) throws IOException {
-        File file = new File(filename);
-        if (!file.exists() || file.length() == 0) {
-            throw new IOException("Board file " + filename + " is missing or empty.");
-        }
+    /**
+     * Plays one game of {@code studentID} on a fresh board built from {@code data} and
+     * returns the number of deleted cells, or 0 if the player could not be initialized.
+     * {@code data} is not modified, so it can be reused for every student. Timings go to {@code metrics},
+     * the replay log to {@code recorder} unless it is null.
+     */
+    static int playBoard(BoardData data, String boardFile, String studentID, RecordingService recorder,
+                         GameScheduler scheduler, GameObserver observer, GameMetrics metrics) {
+        Board board = data.newBoard();
 
-        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
-            int size = Integer.parseInt(br.readLine().trim());
-            String[] start = br.readLine().split("\\s+");
-            int startRow = Integer.parseInt(start[0]);
-            int startCol = Integer.parseInt(start[1]);
-            int[][] grid = new int[size][size];
-
-            for (int r = 0; r < size; r++) {
-                String[] rowVals = br.readLine().split("\\s+");
-                for (int c = 0; c < size; c++) {
-                    grid[r][c] = Integer.parseInt(rowVals[c]);
-                }
+        Player player = null;
+        try {
+            player = Referee.initializePlayer(studentID, board, scheduler, metrics);
+            if (player == null) {
+                metrics.recordInitFailure();
+                System.out.println(studentID + " 1");
+                return 0;
             }
-
-            return new BoardData(size, grid, startRow, startCol);
+        } catch (Exception e) {
+            metrics.recordInitFailure();
+            System.err.println("Error initializing player " + studentID + ": " + e.getMessage());
+            System.out.println(studentID + " 1");
+            return 0;
         }
-    }
 
-    static class BoardData {
-        int size;
-        int[][] grid;
-        int startRow, startCol;
-
-        BoardData(int s, int[][] g, int r, int c) {
-            size = s;
-            grid = g;
-            startRow = r;
-            startCol = c;
-        }
+        Referee.playGame(player, studentID, boardFile, recorder, scheduler, observer, metrics);
+        return board.getDeletedCount();
     }
 }
\ No newline at end of file
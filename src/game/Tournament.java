@@ -0,0 +1,295 @@
+package game;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Plays every student in students.txt on every board in boards/ (.dat or .gbd) inside a single JVM,
+ * so JVM startup and JIT warm-up are paid once instead of once per game. Each board
+ * file is parsed once and shared by all students.
+ * <p>
+ * Games run concurrently on a {@link GameScheduler}; {@code --threads=N} sets how many
+ * players may compute at once (default: one per core). Nothing is printed per move unless
+ * {@code --render=summary} or {@code --render=full} asks for it.
+ * <p>
+ * Writes results/Player&lt;id&gt;.log (one line per game) and results/TotalScores.txt
+ * (average percentage per student) in the format run_tests.sh used to produce, plus
+ * results/Player&lt;id&gt;.metrics.jsonl with the {@link GameMetrics} of every game. Every
+ * score is also given as a percentage of the best known coverage of its board: the
+ * {@link CoverageOracle} result (exact on small boards), or a better score by any player.
+ * Where the oracle could not prove its result optimal, the best known is only a lower
+ * bound on the optimum, so the percentage overstates how close the player got; those
+ * lines say so, with the oracle's (loose) upper bound, and TotalScores.txt counts them.
+ * <p>
+ * Every result is checkpointed into a {@link ResultStore} ({@code --store=FILE}, default
+ * results/ResultStore.bin) as soon as its game ends, and a game whose player class, board
+ * file and engine version are unchanged is not played again, so a re-run after a few
+ * resubmissions or an interruption only plays what is missing. {@code --no-cache} plays
+ * everything (and stores nothing).
+ *
+ * Usage: java game.Tournament [--threads=N] [--render=quiet|summary|full] [--store=FILE] [--no-cache]
+ *        [studentsFile] [boardsDir]
+ */
+public class Tournament {
+    static final boolean ENABLE_SNAPSHOTS = true; // ✅ Replay logs are small enough to keep for every game
+    private static final Pattern BOARD_NAME = Pattern.compile("board_(\\d+)x\\d+_(\\d+)\\.(dat|gbd)");
+
+    public static void main(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        BoardRenderer.Mode renderMode = BoardRenderer.Mode.QUIET;
+        String storeFile = ResultStore.DEFAULT_FILE;
+        List<String> positional = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (arg.startsWith("--render=")) {
+                renderMode = BoardRenderer.Mode.parse(arg.substring("--render=".length()));
+            } else if (arg.startsWith("--store=")) {
+                storeFile = arg.substring("--store=".length());
+            } else if (arg.equals("--no-cache")) {
+                storeFile = null;
+            } else {
+                positional.add(arg);
+            }
+        }
+        String studentsFile = positional.size() > 0 ? positional.get(0) : "students.txt";
+        String boardsDir = positional.size() > 1 ? positional.get(1) : "boards";
+
+        List<String> students;
+        List<BoardEntry> boards;
+        try {
+            students = loadStudents(studentsFile);
+            boards = loadBoards(new File(boardsDir));
+        } catch (IOException e) {
+            System.err.println("Error loading tournament: " + e.getMessage());
+            return;
+        }
+        if (students.isEmpty() || boards.isEmpty()) {
+            System.err.println("Nothing to play: " + students.size() + " students, " + boards.size() + " boards.");
+            return;
+        }
+
+        new File("results").mkdirs();
+        Map<String, CoverageOracle.Coverage> coverage = evaluateBoards(boards, threads);
+        Map<String, List<GameResult>> resultsByStudent;
+        try (ResultStore store = storeFile != null ? new ResultStore(new File(storeFile)) : null;
+             GameScheduler scheduler = new GameScheduler(threads);
+             RecordingService recorder = ENABLE_SNAPSHOTS ? new RecordingService(new File("snapshots")) : null) {
+            resultsByStudent = playAll(students, boards, scheduler, recorder, store, BoardRenderer.forMode(renderMode));
+        } catch (IOException e) {
+            System.err.println("Error opening result store: " + e.getMessage());
+            return;
+        } catch (InterruptedException e) {
+            System.err.println("🔴 Tournament interrupted.");
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        writeResults(resultsByStudent, coverage);
+        System.out.println("Done! Check 'results/TotalScores.txt' for the summary.");
+    }
+
+    /**
+     * Plays every pairing on {@code scheduler} and returns the results grouped by student, in input order.
+     * Replay logs go to {@code recorder}, or nowhere if it is null. Pairings with a result in
+     * {@code store} are not played, and every new result is put into it; null plays everything.
+     */
+    static Map<String, List<GameResult>> playAll(List<String> students, List<BoardEntry> boards,
+                                                 GameScheduler scheduler, RecordingService recorder,
+                                                 ResultStore store, GameObserver observer)
+            throws InterruptedException, IOException {
+        Map<String, List<Future<GameResult>>> futures = new LinkedHashMap<>();
+        int reused = 0;
+        for (String studentID : students) {
+            List<Future<GameResult>> games = new ArrayList<>();
+            for (BoardEntry board : boards) {
+                String key = store != null ? store.key(studentID, board.file) : null;
+                GameResult stored = key != null ? store.get(key, studentID, board) : null;
+                if (stored != null) {
+                    games.add(CompletableFuture.completedFuture(stored)); // ✅ Same player, board and engine
+                    reused++;
+                    continue;
+                }
+                games.add(scheduler.submitGame(() -> {
+                    System.out.println("Testing " + studentID + " on " + board.file + "...");
+                    GameMetrics metrics = new GameMetrics();
+                    int deleted = Tester.playBoard(board.data, board.file, studentID, recorder, scheduler,
+                            observer, metrics);
+                    GameResult result = new GameResult(studentID, board.file, board.data.size, board.gameNumber,
+                            deleted, metrics);
+                    if (store != null) {
+                        store.put(key, result); // 📝 Checkpoint: an interrupted run resumes after this game
+                    }
+                    return result;
+                }));
+            }
+            futures.put(studentID, games);
+        }
+        if (store != null) {
+            System.out.println("Reusing " + reused + " of " + students.size() * boards.size()
+                    + " games from the result store.");
+        }
+
+        Map<String, List<GameResult>> resultsByStudent = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Future<GameResult>>> entry : futures.entrySet()) {
+            List<GameResult> results = new ArrayList<>();
+            for (Future<GameResult> game : entry.getValue()) {
+                try {
+                    results.add(game.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Game crashed the referee: " + e.getCause(), e.getCause());
+                }
+            }
+            resultsByStudent.put(entry.getKey(), results);
+        }
+        return resultsByStudent;
+    }
+
+    static List<String> loadStudents(String studentsFile) throws IOException {
+        List<String> students = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(studentsFile))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty()) {
+                    students.add(line);
+                }
+            }
+        }
+        return students;
+    }
+
+    /** Loads every boards/*.dat and *.gbd file once, ordered by board size and then game number. */
+    static List<BoardEntry> loadBoards(File dir) throws IOException {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".dat") || name.endsWith(BoardLoader.BINARY_EXTENSION));
+        if (files == null) {
+            throw new IOException("Board directory " + dir + " does not exist.");
+        }
+
+        List<BoardEntry> boards = new ArrayList<>();
+        for (File file : files) {
+            String path = dir.getPath() + "/" + file.getName();
+            Matcher m = BOARD_NAME.matcher(file.getName());
+            int gameNumber = m.matches() ? Integer.parseInt(m.group(2)) : 0;
+            boards.add(new BoardEntry(path, gameNumber, BoardCache.shared().get(path)));
+        }
+        boards.sort(Comparator.comparingInt((BoardEntry b) -> b.data.size)
+                .thenComparingInt(b -> b.gameNumber)
+                .thenComparing(b -> b.file));
+        return boards;
+    }
+
+    /**
+     * Best known coverage of every board, computed before any game starts so it does not
+     * compete with players for the cores. Boards are evaluated one at a time, each using
+     * {@code threads} fork/join workers.
+     */
+    static Map<String, CoverageOracle.Coverage> evaluateBoards(List<BoardEntry> boards, int threads) {
+        Map<String, CoverageOracle.Coverage> coverage = new HashMap<>();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (BoardEntry board : boards) {
+                coverage.put(board.file, CoverageOracle.evaluate(board.data, pool));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return coverage;
+    }
+
+    /** Writes results/Player&lt;id&gt;.log and .metrics.jsonl for every student and results/TotalScores.txt. */
+    static void writeResults(Map<String, List<GameResult>> resultsByStudent,
+                             Map<String, CoverageOracle.Coverage> coverage) {
+        Map<String, Integer> bestKnown = new HashMap<>();
+        coverage.forEach((file, c) -> bestKnown.put(file, c.best));
+        for (List<GameResult> results : resultsByStudent.values()) {
+            for (GameResult result : results) {
+                bestKnown.merge(result.boardFile, result.deletedCells, Math::max);
+            }
+        }
+
+        try (PrintWriter totals = new PrintWriter(new FileWriter("results/TotalScores.txt"))) {
+            for (Map.Entry<String, List<GameResult>> entry : resultsByStudent.entrySet()) {
+                String studentID = entry.getKey();
+                double totalPercentage = 0;
+                double totalOfBest = 0;
+                int lowerBounds = 0;
+                try (PrintWriter log = new PrintWriter(new FileWriter("results/Player" + studentID + ".log"))) {
+                    for (GameResult result : entry.getValue()) {
+                        int best = Math.max(1, bestKnown.get(result.boardFile));
+                        CoverageOracle.Coverage c = coverage.get(result.boardFile);
+                        double ofBest = 100.0 * result.deletedCells / best;
+                        String label;
+                        if (c != null && c.exact) {
+                            label = " (optimal)";
+                        } else {
+                            lowerBounds++;
+                            label = c != null ? " (a lower bound, optimum <= " + c.upperBound + ")" : " (a lower bound)";
+                        }
+                        log.println(String.format("%d x %d - Game %d: %d (%.2f%%) | %.2f%% of best known %d%s",
+                                result.boardSize, result.boardSize, result.gameNumber, result.deletedCells,
+                                result.percentage(), ofBest, best, label));
+                        totalPercentage += result.percentage();
+                        totalOfBest += ofBest;
+                    }
+                }
+                totals.println(String.format("%s %.2f%% | %.2f%% of best known%s", studentID,
+                        totalPercentage / entry.getValue().size(), totalOfBest / entry.getValue().size(),
+                        lowerBounds == 0 ? "" : " (only a lower bound on the optimum for " + lowerBounds + " of "
+                                + entry.getValue().size() + " games)"));
+                writeMetrics(studentID, entry.getValue());
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing results: " + e.getMessage());
+        }
+    }
+
+    /**
+     * One JSON line per game, then a {@code "summary"} line with the think times of all
+     * games merged, so players running close to the move timeout stand out.
+     */
+    private static void writeMetrics(String studentID, List<GameResult> results) throws IOException {
+        LatencyHistogram think = new LatencyHistogram();
+        long budgetNanos = 0;
+        int nearTimeout = 0;
+        int deadlineHits = 0;
+        long maxInitNanos = 0;
+
+        try (PrintWriter out = new PrintWriter(new FileWriter("results/Player" + studentID + ".metrics.jsonl"))) {
+            for (GameResult result : results) {
+                GameMetrics metrics = result.metrics;
+                out.println(metrics.toJson(studentID, result.boardFile, result.boardSize, result.deletedCells));
+                think.add(metrics.getThinkTimes());
+                budgetNanos = Math.max(budgetNanos, metrics.getMoveBudgetNanos());
+                nearTimeout += metrics.getNearTimeoutMoves();
+                deadlineHits += metrics.getDeadlineHits();
+                maxInitNanos = Math.max(maxInitNanos, metrics.getInitNanos());
+            }
+
+            StringBuilder summary = new StringBuilder(256);
+            summary.append("{\"type\":\"summary\",\"student\":\"").append(GameMetrics.escape(studentID))
+                    .append("\",\"games\":").append(results.size())
+                    .append(",\"maxInitMicros\":").append(maxInitNanos / 1000);
+            GameMetrics.appendTiming(summary, think, budgetNanos, nearTimeout, deadlineHits);
+            out.println(summary.append('}'));
+        }
+    }
+
+    static class BoardEntry {
+        final String file;
+        final int gameNumber;
+        final BoardData data;
+
+        BoardEntry(String file, int gameNumber, BoardData data) {
+            this.file = file;
+            this.gameNumber = gameNumber;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,546 @@
+package game;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays a {@link Tournament} on a pool of {@link TournamentWorker} JVMs, so a player that
+ * loops forever or exhausts the heap only takes down its own worker, not the run.
+ * <p>
+ * The coordinator listens on a local socket, starts {@code --workers} worker JVMs with
+ * its own classpath and restarts any that die. Workers on other hosts can join with
+ * {@code java game.TournamentWorker <host> <port>} (see {@code --bind}). Every worker
+ * runs {@code --threads} games at once.
+ * <p>
+ * Games are sharded by student into one deque per worker, so a worker keeps playing
+ * the same players (classes loaded and JIT-compiled once). A worker takes games from
+ * the front of its own deque and, once that is empty, steals from the back of the
+ * fullest one. When a worker dies or a game exceeds {@code --game-timeout} (default
+ * {@link #DEFAULT_GAME_TIMEOUT_SECONDS}, 0 disables it), its unfinished games go back
+ * to the front of its deque. Each attempt is charged to the games that may have caused
+ * the loss: every game running on a crashed worker, but only the overdue game(s) of a
+ * worker killed for a timeout. A worker that retires because a game left a player thread
+ * running ({@link TournamentWorker#RETIRE}) has already reported that game's result, so
+ * its other games are requeued without a charge. A game charged {@link #MAX_ATTEMPTS}
+ * times is scored 0. The results are written exactly as {@link Tournament} writes them,
+ * and games are reused from and checkpointed into the same {@link ResultStore}
+ * ({@code --store=FILE}, {@code --no-cache}); a game scored 0 because its workers were
+ * lost is not stored.
+ *
+ * Usage: java game.TournamentCoordinator [--workers=N] [--threads=N] [--port=P] [--bind=ADDR]
+ *        [--game-timeout=SECONDS] [--worker-jvm-args="-Xmx512m ..."] [--store=FILE] [--no-cache]
+ *        [studentsFile] [boardsDir]
+ */
+public class TournamentCoordinator {
+    static final int MAX_ATTEMPTS = 2;
+    static final long DEFAULT_GAME_TIMEOUT_SECONDS = 3600; // ⏳ ~1000 moves of a 100x100 game at the full 1 s take ~20 min
+    private static final int MAX_RESTARTS = 5; // in a row, without any game getting its result meanwhile
+    private static final long WATCHDOG_MILLIS = 1000;
+
+    private final List<String> students;
+    private final List<Tournament.BoardEntry> boards;
+    private final GameResult[] results;
+    private final String[] keys; // ResultStore key per game, null when not stored
+    private final int[] attempts;
+    private final long gameTimeoutNanos;
+    private final List<Shard> shards = new ArrayList<>();
+    private final List<Connection> connections = new ArrayList<>();
+    private final Map<Integer, Process> localWorkers = new HashMap<>();
+    private final ResultStore store;
+    private int remaining;
+    private int stolen;
+    private int supervisors;     // local workers started
+    private int liveSupervisors; // local workers still being restarted
+
+    /** Queues every game without a result in {@code store} (null: every game, nothing stored). */
+    TournamentCoordinator(List<String> students, List<Tournament.BoardEntry> boards, int shardCount,
+                          long gameTimeoutNanos, ResultStore store) throws IOException {
+        this.students = students;
+        this.boards = boards;
+        this.results = new GameResult[students.size() * boards.size()];
+        this.keys = new String[results.length];
+        this.attempts = new int[results.length];
+        this.remaining = results.length;
+        this.gameTimeoutNanos = gameTimeoutNanos;
+        this.store = store;
+        for (int s = 0; s < Math.max(1, shardCount); s++) {
+            shards.add(new Shard());
+        }
+        for (int game = 0; game < results.length; game++) {
+            String studentID = students.get(game / boards.size());
+            Tournament.BoardEntry board = boards.get(game % boards.size());
+            keys[game] = store != null ? store.key(studentID, board.file) : null;
+            GameResult stored = keys[game] != null ? store.get(keys[game], studentID, board) : null;
+            if (stored != null) {
+                results[game] = stored;
+                remaining--;
+            } else {
+                shards.get(game / boards.size() % shards.size()).games.addLast(game);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        int workers = 2;
+        int threads = 1;
+        int port = 0;
+        String bind = "127.0.0.1";
+        long gameTimeoutSeconds = DEFAULT_GAME_TIMEOUT_SECONDS;
+        String workerJvmArgs = "";
+        String storeFile = ResultStore.DEFAULT_FILE;
+        List<String> positional = new ArrayList<>();
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--workers=")) {
+                workers = Integer.parseInt(value);
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(value);
+            } else if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(value);
+            } else if (arg.startsWith("--bind=")) {
+                bind = value;
+            } else if (arg.startsWith("--game-timeout=")) {
+                gameTimeoutSeconds = Long.parseLong(value);
+            } else if (arg.startsWith("--worker-jvm-args=")) {
+                workerJvmArgs = value;
+            } else if (arg.startsWith("--store=")) {
+                storeFile = value;
+            } else if (arg.equals("--no-cache")) {
+                storeFile = null;
+            } else {
+                positional.add(arg);
+            }
+        }
+        if (workers == 0 && port == 0) {
+            System.err.println("Without local workers, pick a --port remote workers can connect to.");
+            return;
+        }
+        String studentsFile = positional.size() > 0 ? positional.get(0) : "students.txt";
+        String boardsDir = positional.size() > 1 ? positional.get(1) : "boards";
+
+        List<String> students;
+        List<Tournament.BoardEntry> boards;
+        try {
+            students = Tournament.loadStudents(studentsFile);
+            boards = Tournament.loadBoards(new File(boardsDir));
+        } catch (IOException e) {
+            System.err.println("Error loading tournament: " + e.getMessage());
+            return;
+        }
+        if (students.isEmpty() || boards.isEmpty()) {
+            System.err.println("Nothing to play: " + students.size() + " students, " + boards.size() + " boards.");
+            return;
+        }
+
+        new File("results").mkdirs();
+        Map<String, CoverageOracle.Coverage> coverage = Tournament.evaluateBoards(boards,
+                Runtime.getRuntime().availableProcessors());
+        TournamentCoordinator coordinator;
+        ResultStore store = null;
+        try {
+            store = storeFile != null ? new ResultStore(new File(storeFile)) : null;
+            coordinator = new TournamentCoordinator(students, boards, workers,
+                    TimeUnit.SECONDS.toNanos(gameTimeoutSeconds), store);
+        } catch (IOException e) {
+            System.err.println("Error opening result store: " + e.getMessage());
+            closeQuietly(store);
+            return;
+        }
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getByName(bind))) {
+            System.out.println("Coordinator listening on " + bind + ":" + server.getLocalPort() + ", "
+                    + coordinator.remainingGames() + " of " + coordinator.results.length + " games to play");
+            coordinator.acceptWorkers(server);
+            for (int id = 0; id < workers; id++) {
+                String host = bind.equals("0.0.0.0") ? "127.0.0.1" : bind;
+                coordinator.superviseLocalWorker(id, workerCommand(host, server.getLocalPort(), threads, workerJvmArgs));
+            }
+            coordinator.awaitCompletion();
+        } catch (IOException e) {
+            System.err.println("Coordinator failed: " + e.getMessage());
+            return;
+        } catch (InterruptedException e) {
+            System.err.println("🔴 Tournament interrupted.");
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            coordinator.stopWorkers();
+            closeQuietly(store);
+        }
+
+        Tournament.writeResults(coordinator.resultsByStudent(), coverage);
+        System.out.println("Done! " + coordinator.stolen + " games stolen. Check 'results/TotalScores.txt' for the summary.");
+    }
+
+    /** Command line of a local worker: this JVM's java and classpath, greed.* properties passed on. */
+    private static List<String> workerCommand(String host, int port, int threads, String jvmArgs) {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        for (String arg : jvmArgs.trim().split("\\s+")) {
+            if (!arg.isEmpty()) {
+                command.add(arg);
+            }
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("greed.")) {
+                command.add("-D" + name + "=" + System.getProperty(name));
+            }
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(TournamentWorker.class.getName());
+        command.add(host);
+        command.add(String.valueOf(port));
+        command.add("--threads=" + threads);
+        return command;
+    }
+
+    /** Accepts workers until the server socket closes, one reader thread each. */
+    void acceptWorkers(ServerSocket server) {
+        Thread acceptor = new Thread(() -> {
+            try {
+                while (true) {
+                    Socket socket = server.accept();
+                    Thread reader = new Thread(() -> serve(socket), "coordinator-" + socket.getRemoteSocketAddress());
+                    reader.setDaemon(true);
+                    reader.start();
+                }
+            } catch (IOException e) {
+                // Server closed: the tournament is over
+            }
+        }, "coordinator-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /** Starts local worker {@code id} and restarts it whenever it exits before the tournament is over. */
+    void superviseLocalWorker(int id, List<String> command) {
+        synchronized (this) {
+            supervisors++;
+            liveSupervisors++;
+        }
+        Thread supervisor = new Thread(() -> {
+            int restarts = 0;
+            try {
+                while (!isFinished()) {
+                    int remainingBefore = remainingGames();
+                    List<String> withId = new ArrayList<>(command);
+                    withId.add("--id=" + id);
+                    Process process = new ProcessBuilder(withId).inheritIO().start();
+                    synchronized (this) {
+                        localWorkers.put(id, process);
+                    }
+                    int exitCode = process.waitFor();
+                    if (isFinished()) {
+                        break;
+                    }
+                    restarts = remainingGames() < remainingBefore ? 1 : restarts + 1;
+                    if (restarts > MAX_RESTARTS) {
+                        System.err.println("💥 Worker " + id + " keeps failing (exit code " + exitCode + "), giving up on it.");
+                        break;
+                    }
+                    System.err.println("🔁 Worker " + id + " exited with code " + exitCode + ", restarting it.");
+                }
+            } catch (IOException e) {
+                System.err.println("💥 Cannot start worker " + id + ": " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                synchronized (this) {
+                    liveSupervisors--;
+                    notifyAll();
+                }
+            }
+        }, "worker-supervisor-" + id);
+        supervisor.setDaemon(true);
+        supervisor.start();
+    }
+
+    /** Waits until every game has a result, killing workers whose games run past the timeout. */
+    synchronized void awaitCompletion() throws InterruptedException {
+        while (remaining > 0) {
+            if (connections.isEmpty() && liveSupervisors == 0 && supervisors > 0) {
+                System.err.println("💥 No workers left, scoring " + remaining + " unplayed games 0.");
+                for (int game = 0; game < results.length; game++) {
+                    if (results[game] == null) {
+                        record(game, 0, new GameMetrics());
+                    }
+                }
+                break;
+            }
+            wait(WATCHDOG_MILLIS);
+            if (gameTimeoutNanos > 0) {
+                killOverdueWorkers();
+            }
+        }
+    }
+
+    /** Tells every worker to exit and waits briefly for the local ones. */
+    void stopWorkers() {
+        List<Connection> open;
+        List<Process> processes;
+        synchronized (this) {
+            open = new ArrayList<>(connections);
+            processes = new ArrayList<>(localWorkers.values());
+            remaining = 0; // supervisors must not restart anything from here on
+        }
+        for (Connection connection : open) {
+            connection.sendStop();
+        }
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /** Results grouped by student in input order, each student's games in board order. */
+    synchronized Map<String, List<GameResult>> resultsByStudent() {
+        Map<String, List<GameResult>> resultsByStudent = new LinkedHashMap<>();
+        for (int game = 0; game < results.length; game++) {
+            resultsByStudent.computeIfAbsent(students.get(game / boards.size()), s -> new ArrayList<>())
+                    .add(results[game]);
+        }
+        return resultsByStudent;
+    }
+
+    private synchronized boolean isFinished() {
+        return remaining == 0;
+    }
+
+    private synchronized int remainingGames() {
+        return remaining;
+    }
+
+    /** Reads one worker's results until its connection drops. */
+    private void serve(Socket socket) {
+        Connection connection;
+        try {
+            socket.setTcpNoDelay(true);
+            connection = new Connection(socket);
+            DataInputStream in = connection.in;
+            if (in.readInt() != TournamentWorker.MAGIC) {
+                throw new IOException("Not a tournament worker");
+            }
+            connection.slots = Math.max(1, in.readInt());
+            connection.localId = in.readInt();
+        } catch (IOException e) {
+            System.err.println("🔌 Rejected connection from " + socket.getRemoteSocketAddress() + ": " + e.getMessage());
+            closeQuietly(socket);
+            return;
+        }
+
+        synchronized (this) {
+            connection.shard = claimShard();
+            connection.shard.owner = connection;
+            connections.add(connection);
+            dispatch();
+        }
+        try {
+            while (true) {
+                byte type = connection.in.readByte();
+                if (type == TournamentWorker.RETIRE) {
+                    int game = connection.in.readInt();
+                    synchronized (this) {
+                        lost(connection, "player thread still running after " + students.get(game / boards.size())
+                                + " on " + boards.get(game % boards.size()).file, Collections.emptySet());
+                    }
+                    return;
+                }
+                if (type != TournamentWorker.RESULT) {
+                    throw new IOException("Unexpected message");
+                }
+                int game = connection.in.readInt();
+                int deleted = connection.in.readInt();
+                GameMetrics metrics = GameMetrics.readFrom(connection.in);
+                synchronized (this) {
+                    if (connection.running.remove(game) != null && results[game] == null) {
+                        record(game, deleted, metrics);
+                        if (store != null) {
+                            store.put(keys[game], results[game]); // 📝 Checkpoint, like Tournament
+                        }
+                    }
+                    dispatch();
+                }
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                lost(connection, e instanceof EOFException || e instanceof SocketException
+                        ? "connection closed" : e.getMessage(), null);
+            }
+        }
+    }
+
+    /** The shard of a worker that is gone (a restarted worker picks up where it left off), else a new one. */
+    private Shard claimShard() {
+        for (Shard shard : shards) {
+            if (shard.owner == null) {
+                return shard;
+            }
+        }
+        Shard shard = new Shard();
+        shards.add(shard);
+        return shard;
+    }
+
+    /** Fills every worker's free slots; the caller holds the lock. */
+    private void dispatch() {
+        for (Connection connection : connections) {
+            while (connection.running.size() < connection.slots) {
+                int game = nextGame(connection.shard);
+                if (game < 0) {
+                    break;
+                }
+                connection.running.put(game, System.nanoTime());
+                if (!connection.sendGame(game, students.get(game / boards.size()), boards.get(game % boards.size()).file)) {
+                    break; // its reader thread sees the broken connection and requeues the game
+                }
+            }
+        }
+        notifyAll();
+    }
+
+    private int nextGame(Shard own) {
+        if (!own.games.isEmpty()) {
+            return own.games.pollFirst();
+        }
+        Shard victim = null;
+        for (Shard shard : shards) {
+            if (victim == null || shard.games.size() > victim.games.size()) {
+                victim = shard;
+            }
+        }
+        if (victim == null || victim.games.isEmpty()) {
+            return -1;
+        }
+        stolen++;
+        return victim.games.pollLast(); // ✅ Steal from the back, away from where the owner takes its next game
+    }
+
+    /**
+     * Requeues the games of a worker that is gone, charging an attempt to the games in
+     * {@code blamed}, or to every running game if it is null; the caller holds the lock.
+     */
+    private void lost(Connection connection, String reason, Set<Integer> blamed) {
+        if (!connections.remove(connection)) {
+            return;
+        }
+        connection.shard.owner = null;
+        closeQuietly(connection.socket);
+        if (remaining == 0) {
+            return;
+        }
+        System.err.println("🔌 Lost worker " + connection.socket.getRemoteSocketAddress() + " (" + reason + ") with "
+                + connection.running.size() + " games in progress.");
+        for (int game : connection.running.keySet()) {
+            if (results[game] != null) {
+                continue;
+            }
+            if ((blamed == null || blamed.contains(game)) && ++attempts[game] >= MAX_ATTEMPTS) {
+                System.err.println("💥 " + students.get(game / boards.size()) + " on " + boards.get(game % boards.size()).file
+                        + " was running on " + attempts[game] + " lost workers, scoring it 0.");
+                record(game, 0, new GameMetrics());
+            } else {
+                connection.shard.games.addFirst(game);
+            }
+        }
+        connection.running.clear();
+        dispatch();
+    }
+
+    /**
+     * Closes the connection of (and kills, if local) every worker with a game running past
+     * the timeout. Only the overdue games are charged an attempt; the others on that
+     * worker just go back to its deque.
+     */
+    private void killOverdueWorkers() {
+        long now = System.nanoTime();
+        for (Connection connection : new ArrayList<>(connections)) {
+            Set<Integer> overdue = new HashSet<>();
+            for (Map.Entry<Integer, Long> running : connection.running.entrySet()) {
+                if (now - running.getValue() > gameTimeoutNanos) {
+                    overdue.add(running.getKey());
+                }
+            }
+            if (!overdue.isEmpty()) {
+                Process process = localWorkers.get(connection.localId);
+                if (process != null) {
+                    process.destroyForcibly();
+                }
+                lost(connection, "game timeout", overdue);
+            }
+        }
+    }
+
+    private void record(int game, int deleted, GameMetrics metrics) {
+        Tournament.BoardEntry board = boards.get(game % boards.size());
+        results[game] = new GameResult(students.get(game / boards.size()), board.file, board.data.size,
+                board.gameNumber, deleted, metrics);
+        remaining--;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (IOException e) {
+            // Already gone
+        }
+    }
+
+    /** Games waiting to be played, in the order their owner should play them. */
+    private static final class Shard {
+        final Deque<Integer> games = new ArrayDeque<>();
+        Connection owner;
+    }
+
+    /** One connected worker. Its fields are guarded by the coordinator's lock, the stream by itself. */
+    private static final class Connection {
+        final Socket socket;
+        final DataInputStream in;
+        final DataOutputStream out;
+        final Map<Integer, Long> running = new LinkedHashMap<>(); // game -> start (nanoTime)
+        int slots;
+        int localId;
+        Shard shard;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        synchronized boolean sendGame(int game, String studentID, String boardFile) {
+            try {
+                out.writeByte(TournamentWorker.GAME);
+                out.writeInt(game);
+                out.writeUTF(studentID);
+                out.writeUTF(boardFile);
+                out.flush();
+                return true;
+            } catch (IOException e) {
+                closeQuietly(socket);
+                return false;
+            }
+        }
+
+        synchronized void sendStop() {
+            try {
+                out.writeByte(TournamentWorker.STOP);
+                out.flush();
+            } catch (IOException e) {
+                // Worker already gone
+            }
+        }
+    }
+}
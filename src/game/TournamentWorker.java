@@ -0,0 +1,153 @@
+package game;
+
+import java.io.*;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Worker JVM of a distributed tournament: connects to a {@link TournamentCoordinator},
+ * plays the (student, board) games it is sent, {@code --threads} at a time, and sends
+ * back each result with its {@link GameMetrics}. Boards are loaded from the paths the
+ * coordinator sends, so a worker on another host needs the same boards/ and players.
+ * <p>
+ * The worker exits when the coordinator says so or the connection drops; a player that
+ * crashes or wedges the JVM only loses this worker's games, which the coordinator hands
+ * to another worker.
+ * <p>
+ * It also exits, with {@link #RETIRED_EXIT_CODE}, after a game whose player code still
+ * holds a core {@link #RELEASE_GRACE_MILLIS} after the game ended (a thread that ignores
+ * interrupts, see {@link GameMetrics#getHeldCores()}). That core is lost to this JVM, and
+ * the next game would wait for it until the coordinator's game timeout blamed that game
+ * instead. The worker reports the game as the culprit and takes no new games; local
+ * workers are restarted by the coordinator, remote ones need restarting by hand.
+ * <p>
+ * Protocol (big-endian, {@link DataOutputStream}): the worker sends {@link #MAGIC}, its
+ * game slots and its id (-1 unless started by the coordinator). The coordinator sends
+ * {@link #GAME} (game number, student ID, board file) or {@link #STOP}; the worker
+ * answers every game with {@link #RESULT} (game number, deleted cells, metrics), followed
+ * by {@link #RETIRE} (game number) if that game left a player thread running.
+ *
+ * Usage: java game.TournamentWorker &lt;host&gt; &lt;port&gt; [--threads=N]
+ */
+public class TournamentWorker {
+    static final int MAGIC = 0x47574B31; // "GWK1"
+    static final byte GAME = 'G';
+    static final byte STOP = 'S';
+    static final byte RESULT = 'R';
+    static final byte RETIRE = 'X';
+    static final int RETIRED_EXIT_CODE = 3;
+    static final long RELEASE_GRACE_MILLIS = 1000; // ⏳ On top of the referee's own grace period
+
+    public static void main(String[] args) {
+        int threads = 1;
+        int id = -1;
+        String host = null;
+        int port = -1;
+        for (String arg : args) {
+            if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (arg.startsWith("--id=")) {
+                id = Integer.parseInt(arg.substring("--id=".length()));
+            } else if (host == null) {
+                host = arg;
+            } else {
+                port = Integer.parseInt(arg);
+            }
+        }
+        if (host == null || port < 0) {
+            System.err.println("Usage: java game.TournamentWorker <host> <port> [--threads=N]");
+            return;
+        }
+
+        int status = 0;
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            if (run(socket, threads, id)) {
+                status = RETIRED_EXIT_CODE;
+            }
+        } catch (IOException e) {
+            System.err.println("🔌 Worker lost the coordinator: " + e.getMessage());
+            status = 1;
+        }
+        System.exit(status); // ✅ Player threads that ignore interrupts must not keep the JVM alive
+    }
+
+    /** Plays games until told to stop; returns true if it stopped because a game left a player thread running. */
+    private static boolean run(Socket socket, int threads, int id) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        out.writeInt(MAGIC);
+        out.writeInt(threads);
+        out.writeInt(id);
+        out.flush();
+
+        AtomicBoolean retired = new AtomicBoolean();
+        try (GameScheduler scheduler = new GameScheduler(threads);
+             RecordingService recorder = Tournament.ENABLE_SNAPSHOTS ? new RecordingService(new File("snapshots")) : null) {
+            while (true) {
+                byte type;
+                try {
+                    type = in.readByte();
+                } catch (IOException e) {
+                    if (retired.get()) {
+                        return true; // ✅ The coordinator dropped us after our RETIRE, as expected
+                    }
+                    throw e;
+                }
+                if (type == STOP) {
+                    return retired.get();
+                }
+                if (type != GAME) {
+                    throw new IOException("Unexpected message " + type);
+                }
+                int game = in.readInt();
+                String studentID = in.readUTF();
+                String boardFile = in.readUTF();
+                if (retired.get()) {
+                    continue; // The coordinator requeues it once it reads our RETIRE
+                }
+                scheduler.submitGame(() -> {
+                    if (play(game, studentID, boardFile, scheduler, recorder, out) && retired.compareAndSet(false, true)) {
+                        socket.shutdownOutput(); // Nothing more to report; the coordinator closes its end
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+
+    /** Plays one game and reports it; returns true if it also sent {@link #RETIRE} for it. */
+    private static boolean play(int game, String studentID, String boardFile, GameScheduler scheduler,
+                                RecordingService recorder, DataOutputStream out) throws IOException {
+        System.out.println("Testing " + studentID + " on " + boardFile + "...");
+        GameMetrics metrics = new GameMetrics();
+        int deleted = 0;
+        try {
+            BoardData data = BoardCache.shared().get(boardFile);
+            deleted = Tester.playBoard(data, boardFile, studentID, recorder, scheduler, GameObserver.QUIET, metrics);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("❌ Game of " + studentID + " on " + boardFile + " failed: " + e);
+        }
+        boolean runaway;
+        try {
+            runaway = !metrics.awaitCoresReleased(RELEASE_GRACE_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            runaway = metrics.getHeldCores() > 0;
+        }
+        synchronized (out) {
+            out.writeByte(RESULT);
+            out.writeInt(game);
+            out.writeInt(deleted);
+            metrics.writeTo(out);
+            if (runaway) {
+                System.err.println("🔥 Player " + studentID + " is still running after its game on " + boardFile
+                        + ", restarting this worker.");
+                out.writeByte(RETIRE);
+                out.writeInt(game);
+            }
+            out.flush();
+        }
+        return runaway;
+    }
+}
@@ -0,0 +1,110 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size, lock-free transposition table keyed by {@link Board#getHash()}.
+ * <p>
+ * Each entry caches the result of searching one position: how many more moves (or
+ * cells, whatever the caller's search counts) can be gained from there, the best move
+ * found, the depth it was searched to and whether the value is exact or a bound.
+ * <p>
+ * Entries are two longs, {@code key ^ data} and {@code data}, written without locks.
+ * A reader only accepts an entry when the two halves XOR back to its key, so a torn
+ * write from a concurrent {@link #store} shows up as a miss instead of wrong data.
+ * The table can therefore be shared by several search threads.
+ */
+public final class TranspositionTable {
+    /** Returned by {@link #probe(long)} when the position is not in the table. */
+    public static final long MISS = -1L;
+
+    public static final int EXACT = 0;
+    public static final int LOWER_BOUND = 1;  // true value is at least the stored value
+    public static final int UPPER_BOUND = 2;  // true value is at most the stored value
+
+    public static final int MAX_VALUE = (1 << 24) - 1;
+    public static final int MAX_DEPTH = 255;
+    public static final int MAX_CAPACITY = 1 << 29; // two longs per entry must still fit in one array
+
+    // data layout: bits 0-29 move + 1 (0 = none), 30-53 value, 54-61 depth, 62-63 bound
+    private static final int VALUE_SHIFT = 30;
+    private static final int DEPTH_SHIFT = 54;
+    private static final int BOUND_SHIFT = 62;
+
+    private final long[] entries;
+    private final int mask;
+
+    /** Creates a table with room for {@code capacity} entries, rounded down to a power of two. */
+    public TranspositionTable(int capacity) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^29: " + capacity);
+        }
+        int entryCount = Integer.highestOneBit(capacity);
+        this.entries = new long[2 * entryCount];
+        this.mask = entryCount - 1;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /** Returns the packed data stored for {@code key}, or {@link #MISS}. */
+    public long probe(long key) {
+        int slot = slot(key);
+        long data = entries[slot + 1];
+        long check = entries[slot];
+        return (check ^ data) == key ? data : MISS;
+    }
+
+    /**
+     * Stores a search result. An entry for a different position is always replaced;
+     * one for the same position only when the new result was searched at least as deep.
+     *
+     * @param move best move as an encoded cell, or -1 for none
+     */
+    public void store(long key, int value, int move, int depth, int bound) {
+        int slot = slot(key);
+        long old = entries[slot + 1];
+        if ((entries[slot] ^ old) == key && depth(old) > Math.min(depth, MAX_DEPTH)) {
+            return;
+        }
+        long data = pack(value, move, depth, bound);
+        entries[slot + 1] = data;
+        entries[slot] = key ^ data;
+    }
+
+    public void clear() {
+        Arrays.fill(entries, 0L);
+    }
+
+    public static int value(long data) {
+        return (int) (data >>> VALUE_SHIFT) & MAX_VALUE;
+    }
+
+    /** Best move stored with the entry as an encoded cell, or -1 if there was none. */
+    public static int move(long data) {
+        return (int) (data & ((1 << VALUE_SHIFT) - 1)) - 1;
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & MAX_DEPTH;
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT);
+    }
+
+    private static long pack(int value, int move, int depth, int bound) {
+        if (value < 0 || move < -1 || move >= (1 << VALUE_SHIFT) - 1 || bound < EXACT || bound > UPPER_BOUND) {
+            throw new IllegalArgumentException("Cannot store value " + value + ", move " + move + ", bound " + bound);
+        }
+        return (move + 1L)
+                | (long) Math.min(value, MAX_VALUE) << VALUE_SHIFT
+                | (long) Math.min(Math.max(depth, 0), MAX_DEPTH) << DEPTH_SHIFT
+                | (long) bound << BOUND_SHIFT;
+    }
+
+    private int slot(long key) {
+        return ((int) (key >>> 32) & mask) << 1;
+    }
+}
@@ -0,0 +1,327 @@
+package players;
+
+import game.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Beam search player (student ID "Beam").
+ * <p>
+ * Each level extends every line in the beam by every legal move and keeps the
+ * {@code width} best by a heuristic score, until the think time or the depth limit runs
+ * out; then the first move of the best line is played. Lines are stored as move paths
+ * and replayed on the board with make/unmake, so the search never copies the board.
+ * <p>
+ * The score is the number of cells the line deletes plus three position features:
+ * <ul>
+ *   <li>mobility: legal moves at the end of the line;</li>
+ *   <li>spread: mean squared distance from the player to the remaining cells, from
+ *       running sums of the remaining cells' coordinates and squares;</li>
+ *   <li>fragmentation: remaining cells with no remaining neighbour, from per-cell
+ *       neighbour counts.</li>
+ * </ul>
+ * The sums and counts live in {@link Features} and are updated cell by cell as a move
+ * deletes its line (and restored on undo), so scoring a position costs O(move length),
+ * not O(N²).
+ * <p>
+ * Properties: {@code greed.beam.width} (default 48), {@code greed.beam.depth}
+ * (default 40), {@code greed.beam.millis} (cap on think time per move).
+ */
+public class PlayerBeam extends Player {
+    private static final int WIDTH = Integer.getInteger("greed.beam.width", 48);
+    private static final int MAX_DEPTH = Integer.getInteger("greed.beam.depth", 40);
+    private static final long MAX_THINK_MILLIS = Long.getLong("greed.beam.millis", 0); // 0 = no cap
+    private static final double THINK_FRACTION = 0.4;
+
+    private static final double MOBILITY_WEIGHT = 3.0;
+    private static final double SPREAD_WEIGHT = 4.0;
+    private static final double ISOLATED_WEIGHT = 0.5;
+    private static final double DEAD_END = -1000.0; // a line that ends the game before the horizon
+
+    private final EndgameSolver endgame = new EndgameSolver();
+    private final Features features;
+    private long expectedHash;       // board hash after the move returned last turn
+    private int pendingFrom = -1;    // that move, to update the features incrementally
+    private int pendingTo = -1;
+
+    public PlayerBeam(Board board) {
+        super(board);
+        this.features = new Features(board);
+    }
+
+    @Override
+    public Move nextMove() {
+        return nextMove(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Override
+    public Move nextMove(long remainingNanos) {
+        long thinkNanos = (long) (remainingNanos * THINK_FRACTION);
+        if (MAX_THINK_MILLIS > 0) {
+            thinkNanos = Math.min(thinkNanos, TimeUnit.MILLISECONDS.toNanos(MAX_THINK_MILLIS));
+        }
+        long deadline = System.nanoTime() + thinkNanos;
+        syncFeatures();
+
+        int[] moves = new int[Board.MAX_MOVES];
+        int count = board.getPossibleMoves(moves);
+        if (count == 0) {
+            return null;
+        }
+        if (count == 1) {
+            return remember(moves[0]);
+        }
+        if (endgame.isEndgame(board)) {
+            Move move = endgame.solve(board, deadline);
+            return remember(move.getRow() * board.getSize() + move.getCol());
+        }
+        return remember(search(deadline));
+    }
+
+    /** Brings the features up to date with the board, incrementally if our last move was played. */
+    private void syncFeatures() {
+        if (pendingFrom >= 0 && board.getHash() == expectedHash) {
+            features.apply(pendingFrom, pendingTo);
+        } else if (pendingFrom >= 0 || features.deletedCount != board.getDeletedCount()) {
+            features.rebuild(board);
+        }
+        pendingFrom = -1;
+    }
+
+    private Move remember(int cell) {
+        long undo = board.applyMove(cell);
+        expectedHash = board.getHash();
+        board.undoMove(undo);
+        pendingFrom = board.getPlayerCell();
+        pendingTo = cell;
+        return new Move(board.rowOf(cell), board.colOf(cell));
+    }
+
+    /** Returns the first move of the best line found before {@code deadline}. */
+    private int search(long deadline) {
+        List<int[]> beam = new ArrayList<>();
+        beam.add(new int[0]);
+        int bestFirst = -1;
+        int startDeleted = features.deletedCount;
+
+        int[] moves = new int[Board.MAX_MOVES];
+        int[] replies = new int[Board.MAX_MOVES];
+        long[] undos = new long[MAX_DEPTH];
+        for (int depth = 0; depth < MAX_DEPTH && !beam.isEmpty(); depth++) {
+            List<Candidate> candidates = new ArrayList<>(beam.size() * 4);
+            for (int[] path : beam) {
+                for (int i = 0; i < path.length; i++) {
+                    undos[i] = play(path[i]);
+                }
+                int count = board.getPossibleMoves(moves);
+                for (int m = 0; m < count; m++) {
+                    long undo = play(moves[m]);
+                    int mobility = board.getPossibleMoves(replies);
+                    double score = features.deletedCount - startDeleted
+                            + (mobility == 0 ? DEAD_END : features.score(board, mobility));
+                    candidates.add(new Candidate(path, moves[m], score));
+                    unplay(undo);
+                }
+                for (int i = path.length - 1; i >= 0; i--) {
+                    unplay(undos[i]);
+                }
+                if (System.nanoTime() >= deadline || Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+
+            candidates.sort((a, b) -> Double.compare(b.score, a.score));
+            beam = new ArrayList<>(WIDTH);
+            for (int i = 0; i < candidates.size() && beam.size() < WIDTH; i++) {
+                Candidate c = candidates.get(i);
+                int[] path = Arrays.copyOf(c.parent, c.parent.length + 1);
+                path[c.parent.length] = c.move;
+                beam.add(path);
+            }
+            bestFirst = beam.get(0)[0]; // first move of the best line at the deepest level
+            publishMove(new Move(board.rowOf(bestFirst), board.colOf(bestFirst)));
+            if (System.nanoTime() >= deadline || Thread.currentThread().isInterrupted()) {
+                break;
+            }
+        }
+        return bestFirst;
+    }
+
+    private long play(int cell) {
+        int from = board.getPlayerCell();
+        long undo = board.applyMove(cell);
+        features.apply(from, cell);
+        return undo;
+    }
+
+    private void unplay(long undo) {
+        int to = board.getPlayerCell();
+        board.undoMove(undo);
+        features.undo(board.getPlayerCell(), to);
+    }
+
+    private static final class Candidate {
+        final int[] parent;
+        final int move;
+        final double score;
+
+        Candidate(int[] parent, int move, double score) {
+            this.parent = parent;
+            this.move = move;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Incrementally maintained features of the remaining (undeleted) cells: their count,
+     * coordinate sums and squared sums, and for every cell how many of its 8 neighbours
+     * remain, with the number of remaining cells that have none.
+     */
+    static final class Features {
+        private final int size;
+        private final byte[] liveNeighbours;
+        private final boolean[] deleted;
+        int deletedCount;
+        private long sumRow, sumCol, sumSquares;
+        private int isolated;
+
+        Features(Board board) {
+            this.size = board.getSize();
+            this.liveNeighbours = new byte[size * size];
+            this.deleted = new boolean[size * size];
+            rebuild(board);
+        }
+
+        /** Recomputes everything from the board, O(N²). */
+        void rebuild(Board board) {
+            Arrays.fill(liveNeighbours, (byte) 0);
+            deletedCount = 0;
+            sumRow = sumCol = sumSquares = 0;
+            for (int row = 0, i = 0; row < size; row++) {
+                for (int col = 0; col < size; col++, i++) {
+                    deleted[i] = board.isVisited(row, col);
+                    if (deleted[i]) {
+                        deletedCount++;
+                    } else {
+                        sumRow += row;
+                        sumCol += col;
+                        sumSquares += row * row + col * col;
+                    }
+                }
+            }
+            isolated = 0;
+            for (int i = 0; i < deleted.length; i++) {
+                int live = 0;
+                int row = i / size, col = i % size;
+                for (int dr = -1; dr <= 1; dr++) {
+                    for (int dc = -1; dc <= 1; dc++) {
+                        int r = row + dr, c = col + dc;
+                        if ((dr != 0 || dc != 0) && r >= 0 && r < size && c >= 0 && c < size && !deleted[r * size + c]) {
+                            live++;
+                        }
+                    }
+                }
+                liveNeighbours[i] = (byte) live;
+                if (!deleted[i] && live == 0) {
+                    isolated++;
+                }
+            }
+        }
+
+        /** The move from {@code from} to {@code to} deleted every cell after {@code from} up to {@code to}. */
+        void apply(int from, int to) {
+            int step = step(from, to);
+            for (int i = from + step; ; i += step) {
+                delete(i);
+                if (i == to) {
+                    break;
+                }
+            }
+        }
+
+        void undo(int from, int to) {
+            int step = step(from, to);
+            for (int i = to; i != from; i -= step) {
+                restore(i);
+            }
+        }
+
+        /** Heuristic value of the position besides the cells already deleted. */
+        double score(Board board, int mobility) {
+            int live = size * size - deletedCount;
+            double spread = 0;
+            if (live > 0) {
+                int pr = board.getPlayerRow(), pc = board.getPlayerCol();
+                double sumSquaredDistance = sumSquares - 2.0 * pr * sumRow - 2.0 * pc * sumCol
+                        + (double) live * (pr * pr + pc * pc);
+                spread = sumSquaredDistance / live / ((double) size * size); // 0..2
+            }
+            return MOBILITY_WEIGHT * mobility - SPREAD_WEIGHT * spread - ISOLATED_WEIGHT * isolated;
+        }
+
+        private int step(int from, int to) {
+            int rowStep = Integer.signum(to / size - from / size);
+            int colStep = Integer.signum(to % size - from % size);
+            return rowStep * size + colStep;
+        }
+
+        private void delete(int i) {
+            deleted[i] = true;
+            deletedCount++;
+            int row = i / size, col = i % size;
+            sumRow -= row;
+            sumCol -= col;
+            sumSquares -= row * row + col * col;
+            if (liveNeighbours[i] == 0) {
+                isolated--;
+            }
+            forEachNeighbour(i, -1);
+        }
+
+        private void restore(int i) {
+            forEachNeighbour(i, 1);
+            deleted[i] = false;
+            deletedCount--;
+            int row = i / size, col = i % size;
+            sumRow += row;
+            sumCol += col;
+            sumSquares += row * row + col * col;
+            if (liveNeighbours[i] == 0) {
+                isolated++;
+            }
+        }
+
+        /** Adds {@code delta} to the neighbour counts around {@code i}, tracking remaining cells left with none. */
+        private void forEachNeighbour(int i, int delta) {
+            int row = i / size, col = i % size;
+            for (int dr = -1; dr <= 1; dr++) {
+                int r = row + dr;
+                if (r < 0 || r >= size) {
+                    continue;
+                }
+                for (int dc = -1; dc <= 1; dc++) {
+                    int c = col + dc;
+                    if ((dr == 0 && dc == 0) || c < 0 || c >= size) {
+                        continue;
+                    }
+                    int n = r * size + c;
+                    int before = liveNeighbours[n];
+                    liveNeighbours[n] = (byte) (before + delta);
+                    if (!deleted[n]) {
+                        if (before == 0) {
+                            isolated--;
+                        } else if (before + delta == 0) {
+                            isolated++;
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
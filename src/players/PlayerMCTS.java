@@ -0,0 +1,313 @@
+package players;
+
+import game.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reference Monte Carlo Tree Search player (student ID "MCTS").
+ * <p>
+ * Root-parallel: every worker grows its own UCT tree from a private copy of the board,
+ * so no locks are needed, and the root statistics are summed at the end. Each
+ * iteration copies the worker's board (only the deleted bitset is copied), walks down
+ * the tree, and finishes with a playout that mostly picks the move leaving the most
+ * moves afterwards. The reward is the number of deleted cells at the end of the line
+ * (so rewards stay comparable when a subtree is reused); since the game is
+ * deterministic, the move leading to the best line found wins, with the mean reward
+ * only guiding the exploration.
+ * <p>
+ * Think time is {@link #THINK_FRACTION} of the move budget, capped by
+ * {@code -Dgreed.mcts.millis}. The best move so far is published regularly, so a
+ * deadline hit still plays it. The subtree below the chosen move is kept for the next
+ * turn, and once the reachable region is small the {@link EndgameSolver} takes over.
+ * {@code -Dgreed.mcts.threads} sets the most workers per move (default: one per core);
+ * the helpers beyond the first only run on cores the game's scheduler can spare this move
+ * ({@link #acquireHelperCores}), so other games in a tournament keep theirs.
+ */
+public class PlayerMCTS extends Player {
+    private static final double THINK_FRACTION = 0.5;
+    private static final double EXPLORATION = 0.4;
+    private static final double RANDOM_MOVE_CHANCE = 0.15;
+    private static final int PUBLISH_INTERVAL = 256;
+    private static final int WORKERS = Integer.getInteger("greed.mcts.threads", Runtime.getRuntime().availableProcessors());
+    private static final long MAX_THINK_MILLIS = Long.getLong("greed.mcts.millis", 0); // 0 = no cap
+
+    // Helpers for workers 1..n-1, each on a core granted by the scheduler; worker 0 runs on the Referee's player thread
+    private static final ExecutorService HELPERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "mcts-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final EndgameSolver endgame = new EndgameSolver();
+    private final Node[] roots = new Node[Math.max(1, WORKERS)];
+    private final SplittableRandom seeds = new SplittableRandom(0x4D435453L);
+    private long expectedHash; // board hash after the move returned last turn, to reuse its subtree
+
+    public PlayerMCTS(Board board) {
+        super(board);
+    }
+
+    @Override
+    public Move nextMove() {
+        return nextMove(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Override
+    public Move nextMove(long remainingNanos) {
+        long thinkNanos = (long) (remainingNanos * THINK_FRACTION);
+        if (MAX_THINK_MILLIS > 0) {
+            thinkNanos = Math.min(thinkNanos, TimeUnit.MILLISECONDS.toNanos(MAX_THINK_MILLIS));
+        }
+        long deadline = System.nanoTime() + thinkNanos;
+        int[] moves = new int[Board.MAX_MOVES];
+        int count = board.getPossibleMoves(moves);
+        if (count == 0) {
+            return null;
+        }
+        if (count == 1) {
+            return remember(moves[0]);
+        }
+        if (endgame.isEndgame(board)) {
+            return remember(endgame.solve(board, deadline));
+        }
+
+        boolean reuse = board.getHash() == expectedHash;
+        for (int w = 0; w < roots.length; w++) {
+            if (!reuse || roots[w] == null || roots[w].children == null) {
+                roots[w] = new Node(-1, null);
+            }
+        }
+
+        AtomicInteger stop = new AtomicInteger();
+        List<Future<?>> helpers = new ArrayList<>();
+        int granted = acquireHelperCores(roots.length - 1);
+        for (int w = 1; w <= granted; w++) {
+            Worker worker = new Worker(roots[w], new Board(board), seeds.split(), deadline, stop, false);
+            try {
+                helpers.add(HELPERS.submit(() -> {
+                    try {
+                        worker.run();
+                    } finally {
+                        releaseHelperCore(); // 🔌 Only once the helper really stopped
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                releaseHelperCore();
+            }
+        }
+        new Worker(roots[0], new Board(board), seeds.split(), deadline, stop, true).run();
+        stop.set(1);
+        for (Future<?> helper : helpers) {
+            try {
+                helper.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null; // the deadline hit, the Referee plays the published move
+            } catch (ExecutionException e) {
+                // a failed helper only loses its statistics
+            }
+        }
+        return remember(bestMove(roots, board));
+    }
+
+    private Move remember(int cell) {
+        return remember(new Move(board.rowOf(cell), board.colOf(cell)));
+    }
+
+    /** Keeps the chosen subtree as the next root and returns the move. */
+    private Move remember(Move move) {
+        if (move == null) {
+            return null;
+        }
+        Board next = new Board(board);
+        next.applyMove(move);
+        expectedHash = next.getHash();
+        int cell = move.getRow() * board.getSize() + move.getCol();
+        for (int w = 0; w < roots.length; w++) {
+            roots[w] = roots[w] == null ? null : roots[w].child(cell);
+            if (roots[w] != null) {
+                roots[w].parent = null;
+            }
+        }
+        return move;
+    }
+
+    /** Root move with the best line over all trees, ties going to the most visited one. */
+    private static int bestMove(Node[] roots, Board board) {
+        int[] moves = new int[Board.MAX_MOVES];
+        int count = board.getPossibleMoves(moves);
+        int bestMove = moves[0];
+        int bestReward = -1;
+        long bestVisits = -1;
+        for (int i = 0; i < count; i++) {
+            int reward = -1;
+            long visits = 0;
+            for (Node root : roots) {
+                Node child = root == null ? null : root.child(moves[i]);
+                if (child != null) {
+                    reward = Math.max(reward, child.maxReward);
+                    visits += child.visits;
+                }
+            }
+            if (reward > bestReward || (reward == bestReward && visits > bestVisits)) {
+                bestMove = moves[i];
+                bestReward = reward;
+                bestVisits = visits;
+            }
+        }
+        return bestMove;
+    }
+
+    /** Tree node; children are created all at once on the second visit. */
+    private static final class Node {
+        final int move; // encoded cell, -1 at the root
+        Node parent;
+        Node[] children;
+        int visits;
+        long totalReward;
+        int maxReward = -1;
+
+        Node(int move, Node parent) {
+            this.move = move;
+            this.parent = parent;
+        }
+
+        Node child(int cell) {
+            if (children != null) {
+                for (Node child : children) {
+                    if (child.move == cell) {
+                        return child;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    /** Grows one tree until the deadline, the stop flag or an interrupt. */
+    private final class Worker implements Runnable {
+        private final Node root;
+        private final Board rootBoard;
+        private final SplittableRandom random;
+        private final long deadline;
+        private final AtomicInteger stop;
+        private final boolean publishes;
+        private final int[] moves = new int[Board.MAX_MOVES];
+        private final int[] replies = new int[Board.MAX_MOVES];
+        private final int rootDeleted;
+
+        Worker(Node root, Board rootBoard, SplittableRandom random, long deadline, AtomicInteger stop,
+               boolean publishes) {
+            this.root = root;
+            this.rootBoard = rootBoard;
+            this.random = random;
+            this.deadline = deadline;
+            this.stop = stop;
+            this.publishes = publishes;
+            this.rootDeleted = rootBoard.getDeletedCount();
+        }
+
+        @Override
+        public void run() {
+            for (int iteration = 1; stop.get() == 0; iteration++) {
+                Board playout = new Board(rootBoard);
+                Node node = select(playout);
+                backPropagate(node, playout(playout));
+
+                if ((iteration & 63) == 0 && (System.nanoTime() >= deadline || Thread.currentThread().isInterrupted())) {
+                    break;
+                }
+                if (publishes && iteration % PUBLISH_INTERVAL == 0) {
+                    publishBest();
+                }
+            }
+        }
+
+        private void publishBest() {
+            Node best = null;
+            for (Node child : root.children) {
+                if (best == null || child.maxReward > best.maxReward) {
+                    best = child;
+                }
+            }
+            if (best != null) {
+                publishMove(new Move(rootBoard.rowOf(best.move), rootBoard.colOf(best.move)));
+            }
+        }
+
+        /** Walks down by UCT, applying the moves to {@code playout}, and expands the node it stops at. */
+        private Node select(Board playout) {
+            Node node = root;
+            while (true) {
+                if (node.children == null) {
+                    if (node.visits == 0 && node != root) {
+                        return node;
+                    }
+                    int count = playout.getPossibleMoves(moves);
+                    Node[] children = new Node[count];
+                    for (int i = 0; i < count; i++) {
+                        children[i] = new Node(moves[i], node);
+                    }
+                    node.children = children;
+                }
+                if (node.children.length == 0) {
+                    return node;
+                }
+
+                Node next = null;
+                double bestScore = Double.NEGATIVE_INFINITY;
+                double scale = Math.max(1, root.maxReward - rootDeleted);
+                double logVisits = Math.log(node.visits + 1);
+                for (Node child : node.children) {
+                    if (child.visits == 0) {
+                        next = child;
+                        break;
+                    }
+                    double score = ((double) child.totalReward / child.visits - rootDeleted) / scale
+                            + EXPLORATION * Math.sqrt(logVisits / child.visits);
+                    if (score > bestScore) {
+                        bestScore = score;
+                        next = child;
+                    }
+                }
+                playout.applyMove(next.move);
+                node = next;
+            }
+        }
+
+        /** Plays to the end and returns the number of deleted cells. */
+        private int playout(Board playout) {
+            int count;
+            while ((count = playout.getPossibleMoves(moves)) > 0) {
+                int choice = random.nextInt(count);
+                if (count > 1 && random.nextDouble() >= RANDOM_MOVE_CHANCE) {
+                    int bestMobility = -1;
+                    for (int i = 0; i < count; i++) {
+                        long undo = playout.applyMove(moves[i]);
+                        int mobility = playout.getPossibleMoves(replies);
+                        playout.undoMove(undo);
+                        if (mobility > bestMobility || (mobility == bestMobility && random.nextBoolean())) {
+                            bestMobility = mobility;
+                            choice = i;
+                        }
+                    }
+                }
+                playout.applyMove(moves[choice]);
+            }
+            return playout.getDeletedCount();
+        }
+
+        private void backPropagate(Node node, int reward) {
+            for (; node != null; node = node.parent) {
+                node.visits++;
+                node.totalReward += reward;
+                node.maxReward = Math.max(node.maxReward, reward);
+            }
+        }
+    }
+}